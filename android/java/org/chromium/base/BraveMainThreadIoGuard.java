@@ -0,0 +1,59 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.base;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Receives calls injected by the bytecode rewriter (MainThreadIoGuardClassAdapter) before
+ * blocking I/O APIs, in builds with brave_android_enable_main_thread_io_guard. Calls made on
+ * the UI thread are counted per API and caller, and the first one of each kind is logged
+ * with a stack trace. With --brave-assert-main-thread-io they throw instead.
+ * Lives in base so that every rewritten jar can reference it.
+ */
+public final class BraveMainThreadIoGuard {
+    private static final String TAG = "MainThreadIo";
+    private static final String ASSERT_SWITCH = "brave-assert-main-thread-io";
+
+    private static final ConcurrentHashMap<String, AtomicInteger> sViolations =
+            new ConcurrentHashMap<>();
+
+    private BraveMainThreadIoGuard() {}
+
+    public static void onBlockingCall(String api, String caller) {
+        if (!ThreadUtils.runningOnUiThread()) return;
+
+        String key = api + " from " + caller;
+        AtomicInteger count = sViolations.get(key);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = sViolations.putIfAbsent(key, newCount);
+            if (count == null) count = newCount;
+        }
+        boolean isFirst = count.getAndIncrement() == 0;
+
+        if (CommandLine.isInitialized() && CommandLine.getInstance().hasSwitch(ASSERT_SWITCH)) {
+            throw new IllegalStateException("Blocking call on the main thread: " + key);
+        }
+        if (isFirst) {
+            Log.w(TAG, "Blocking call on the main thread: %s", key, new Throwable());
+        }
+    }
+
+    /**
+     * @return number of main thread calls per blocking API and caller seen so far.
+     */
+    public static String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, AtomicInteger> entry : new TreeMap<>(sViolations).entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue().get()).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -6,43 +6,26 @@
 package org.chromium.chrome.browser;
 
 import androidx.annotation.VisibleForTesting;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.HashMap;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 class BraveRewardsBalance {
     public static final String WALLET_ANONYMOUS = "anonymous";
     public static final String WALLET_UPHOLD = "uphold";
     public static final String WALLET_BLINDED = "blinded";
 
-    /**
-     * matching consts in
-     * src/brave/components/brave_rewards/browser/balance.h
-     */
-    public static final String JSON_TOTAL = "total";
-    public static final String JSON_WALLETS = "wallets";
-
     double mTotal;
     Map <String, Double> mWallets;
 
-    BraveRewardsBalance (String json_balance) throws JSONException {
-        fromJson (json_balance);
-    }
-
-    private void fromJson(String json_balance) throws JSONException {
-        JSONObject jsonroot = new JSONObject(json_balance);
-        mTotal = jsonroot.getDouble(JSON_TOTAL);
-
-        mWallets = new HashMap <>();
-        JSONObject json_wallets = jsonroot.getJSONObject(JSON_WALLETS);
-        Iterator<String> keys = json_wallets.keys();
-        while(keys.hasNext()) {
-            String key = keys.next();
-            Double val = json_wallets.getDouble(key);
-            mWallets.put (key, val);
+    /**
+     * Built by BraveRewardsNativeWorker.createBalance, wallet types and
+     * their amounts are passed as parallel arrays.
+     */
+    BraveRewardsBalance (double total, String[] wallet_types, double[] wallet_amounts) {
+        mTotal = total;
+        mWallets = new HashMap <>(wallet_types.length * 2);
+        for (int i = 0; i < wallet_types.length; i++) {
+            mWallets.put (wallet_types[i], wallet_amounts[i]);
         }
     }
 
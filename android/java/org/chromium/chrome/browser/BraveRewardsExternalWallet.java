@@ -14,11 +14,9 @@ import java.lang.annotation.RetentionPolicy;
 
 import org.chromium.base.ContextUtils;
 import org.chromium.chrome.R;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 class BraveRewardsExternalWallet {
-    //fields
+    //intent extras
     public static final String ACCOUNT_URL = "account_url";
     public static final String ADD_URL = "add_url";
     public static final String ADDRESS = "address";
@@ -52,20 +50,20 @@ class BraveRewardsExternalWallet {
     public String mWithdraw_url;
 
 
-    BraveRewardsExternalWallet (String json_external_wallet) throws JSONException {
-        fromJson (json_external_wallet);
-    }
-
-    private void fromJson(String json_external_wallet) throws JSONException {
-        JSONObject jsonObj = new JSONObject(json_external_wallet);
-        mAccount_url = jsonObj.getString(ACCOUNT_URL);
-        mAdd_url = jsonObj.getString(ADD_URL);
-        mAddress = jsonObj.getString(ADDRESS);
-        mStatus = jsonObj.getInt(STATUS);
-        mToken = jsonObj.getString(TOKEN);
-        mUser_name = jsonObj.getString(USER_NAME);
-        mVerify_url = jsonObj.getString(VERIFY_URL);
-        mWithdraw_url = jsonObj.getString(WITHDRAW_URL);
+    /**
+     * Built by BraveRewardsNativeWorker.createExternalWallet.
+     */
+    BraveRewardsExternalWallet (String token, String address, @WalletStatus int status,
+            String verify_url, String add_url, String withdraw_url, String user_name,
+            String account_url) {
+        mToken = token;
+        mAddress = address;
+        mStatus = status;
+        mVerify_url = verify_url;
+        mAdd_url = add_url;
+        mWithdraw_url = withdraw_url;
+        mUser_name = user_name;
+        mAccount_url = account_url;
     }
 
     @VisibleForTesting
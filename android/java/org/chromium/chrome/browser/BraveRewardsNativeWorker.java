@@ -17,7 +17,6 @@ import org.chromium.chrome.browser.BraveRewardsObserver;
 import org.chromium.chrome.browser.BraveRewardsPublisher.PublisherStatus;
 import org.chromium.chrome.browser.tab.Tab;
 import org.chromium.components.embedder_support.util.UrlConstants;
-import org.json.JSONException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -197,15 +196,7 @@ public class BraveRewardsNativeWorker {
     @Nullable
     public BraveRewardsBalance GetWalletBalance() {
         synchronized(lock) {
-            String  json = nativeGetWalletBalance(mNativeBraveRewardsNativeWorker);
-            BraveRewardsBalance balance = null;
-            try{
-                balance = new BraveRewardsBalance (json);
-            }
-            catch (JSONException e) {
-                balance = null;
-            }
-            return balance;
+            return nativeGetWalletBalance(mNativeBraveRewardsNativeWorker);
         }
     }
 
@@ -609,7 +600,22 @@ public class BraveRewardsNativeWorker {
     }
 
     @CalledByNative
-    public void OnGetExternalWallet(int error_code, String external_wallet) {
+    private static BraveRewardsBalance createBalance(
+            double total, String[] walletTypes, double[] walletAmounts) {
+        return new BraveRewardsBalance(total, walletTypes, walletAmounts);
+    }
+
+    @CalledByNative
+    private static BraveRewardsExternalWallet createExternalWallet(String token,
+            String address, int status, String verifyUrl, String addUrl, String withdrawUrl,
+            String userName, String accountUrl) {
+        return new BraveRewardsExternalWallet(token, address, status, verifyUrl, addUrl,
+                withdrawUrl, userName, accountUrl);
+    }
+
+    @CalledByNative
+    public void OnGetExternalWallet(int error_code,
+            @Nullable BraveRewardsExternalWallet external_wallet) {
         for (BraveRewardsObserver observer : mObservers) {
             observer.OnGetExternalWallet(error_code, external_wallet);
         }
@@ -643,7 +649,7 @@ public class BraveRewardsNativeWorker {
     private native void nativeDestroy(long nativeBraveRewardsNativeWorker);
     private native void nativeCreateWallet(long nativeBraveRewardsNativeWorker);
     private native void nativeWalletExist(long nativeBraveRewardsNativeWorker);
-    private native String nativeGetWalletBalance(long nativeBraveRewardsNativeWorker);
+    private native BraveRewardsBalance nativeGetWalletBalance(long nativeBraveRewardsNativeWorker);
     private native double nativeGetWalletRate(long nativeBraveRewardsNativeWorker);
     private native void nativeGetPublisherInfo(long nativeBraveRewardsNativeWorker, int tabId, String host);
     private native String nativeGetPublisherURL(long nativeBraveRewardsNativeWorker, int tabId);
@@ -25,7 +25,7 @@ public interface BraveRewardsObserver {
   default public void OnRewardsMainEnabled(boolean enabled) {};
   default public void OnGrantFinish(int result) {};
   default public void OnGetExternalWallet(int error_code,
-          String external_wallet) {};
+          BraveRewardsExternalWallet external_wallet) {};
   default public void OnDisconnectWallet(int error_code,
           String external_wallet) {};
   default public void OnProcessRewardsPageUrl(int error_code,
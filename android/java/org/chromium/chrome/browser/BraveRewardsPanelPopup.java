@@ -63,7 +63,6 @@ import org.chromium.chrome.browser.tabmodel.TabModelSelectorImpl;
 import org.chromium.chrome.R;
 import org.chromium.content_public.browser.LoadUrlParams;
 
-import org.json.JSONException;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.util.Arrays;
@@ -1616,14 +1615,13 @@ public class BraveRewardsPanelPopup implements BraveRewardsObserver, BraveReward
     }
 
     @Override
-    public void OnGetExternalWallet(int error_code, String external_wallet) {
-        try {
-            mExternal_wallet = new BraveRewardsExternalWallet(external_wallet);
-            SetVerifyWalletControl(mExternal_wallet.mStatus);
-        } catch (JSONException e) {
-            Log.e (TAG, "Error parsing external wallet status");
-            mExternal_wallet = null;
+    public void OnGetExternalWallet(int error_code, BraveRewardsExternalWallet external_wallet) {
+        mExternal_wallet = external_wallet;
+        if (mExternal_wallet == null) {
+            Log.e (TAG, "Error getting external wallet status");
+            return;
         }
+        SetVerifyWalletControl(mExternal_wallet.mStatus);
     }
 
     /**
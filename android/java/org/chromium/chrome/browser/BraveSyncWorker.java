@@ -15,6 +15,7 @@ import org.chromium.base.annotations.CalledByNative;
 import org.chromium.base.annotations.JNINamespace;
 import org.chromium.base.task.PostTask;
 import org.chromium.base.task.TaskTraits;
+import org.chromium.chrome.browser.util.BraveTraceRecorder;
 
 import java.lang.Runnable;
 
@@ -52,9 +53,11 @@ public class BraveSyncWorker {
     }
 
     public BraveSyncWorker() {
+        long start = BraveTraceRecorder.begin();
         mContext = ContextUtils.getApplicationContext();
         Init();
         (new MigrationFromV1()).MigrateFromSyncV1();
+        BraveTraceRecorder.end("BraveSyncWorker.<init>", start);
     }
 
     private class MigrationFromV1 {
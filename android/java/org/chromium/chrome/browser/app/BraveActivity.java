@@ -64,19 +64,27 @@ import org.chromium.chrome.browser.tabmodel.TabModelUtils;
 import org.chromium.chrome.browser.toolbar.top.BraveToolbarLayout;
 import org.chromium.chrome.browser.util.BraveDbUtil;
 import org.chromium.chrome.browser.util.BraveReferrer;
+import org.chromium.chrome.browser.util.BraveReportQueue;
+import org.chromium.chrome.browser.util.BraveTraceRecorder;
+import org.chromium.chrome.browser.util.LottieCompositionCache;
 import org.chromium.components.bookmarks.BookmarkId;
 import org.chromium.components.bookmarks.BookmarkType;
 import org.chromium.components.embedder_support.util.UrlConstants;
 import org.chromium.components.user_prefs.UserPrefs;
+import org.chromium.content_public.browser.UiThreadTaskTraits;
 import org.chromium.ui.widget.Toast;
 import org.chromium.chrome.browser.util.PackageUtils;
 import org.chromium.chrome.browser.onboarding.OnboardingPrefManager;
 import org.chromium.chrome.browser.onboarding.OnboardingActivity;
 import org.chromium.chrome.browser.CrossPromotionalModalDialogFragment;
 import org.chromium.chrome.browser.onboarding.v2.HighlightDialogFragment;
+import org.chromium.chrome.browser.onboarding.v2.OnboardingV2Fragment;
 import org.chromium.chrome.browser.notifications.retention.RetentionNotificationUtil;
+import org.chromium.chrome.browser.brave_stats.BraveStatsAggregator;
 import org.chromium.chrome.browser.brave_stats.BraveStatsUtil;
+import org.chromium.chrome.browser.ntp.BraveNewTabPageLayout;
 import org.chromium.chrome.browser.ntp.NewTabPage;
+import org.chromium.chrome.browser.ntp.TopSiteTilePool;
 
 import java.util.Calendar;
 import java.util.Date;
@@ -107,6 +115,10 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
     public static final String ANDROID_PACKAGE_NAME = "android";
     public static final String BRAVE_BLOG_URL = "http://www.brave.com/blog";
 
+    private final BraveStartupTaskRunner mStartupTaskRunner = new BraveStartupTaskRunner();
+    private final TopSiteTilePool mTopSiteTilePool = new TopSiteTilePool(this);
+    private boolean mDbOperationPending;
+
     public BraveActivity() {
         // Disable key checker to avoid asserts on Brave keys in debug
         SharedPreferencesManager.getInstance().disableKeyCheckerForTesting();
@@ -151,11 +163,13 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
     @Override
     public void initializeState() {
         super.initializeState();
+        long start = BraveTraceRecorder.begin();
         if (isNoRestoreState()) {
             CommandLine.getInstance().appendSwitch(ChromeSwitches.NO_RESTORE_STATE);
         }
 
         BraveSearchEngineUtils.initializeBraveSearchEngineStates(getTabModelSelector());
+        BraveTraceRecorder.end("BraveActivity.initializeState", start);
     }
 
     @Override
@@ -190,9 +204,16 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
     public void performPostInflationStartup() {
         super.performPostInflationStartup();
 
-        BraveReferrer.getInstance().initReferrer(this);
-        createNotificationChannel();
-        setupBraveSetDefaultBrowserNotification();
+        long start = BraveTraceRecorder.begin();
+        mStartupTaskRunner
+                .addTask("InitReferrer", BraveStartupTaskRunner.IDLE,
+                        () -> BraveReferrer.getInstance().initReferrer(this))
+                .addTask("CreateNotificationChannel", BraveStartupTaskRunner.BACKGROUND,
+                        this::createNotificationChannel)
+                .addTask("SetupDefaultBrowserNotification", BraveStartupTaskRunner.IDLE,
+                        this::setupBraveSetDefaultBrowserNotification)
+                .run();
+        BraveTraceRecorder.end("BraveActivity.performPostInflationStartup", start);
     }
 
     @Override
@@ -208,20 +229,59 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
     public void finishNativeInitialization() {
         super.finishNativeInitialization();
 
-        int appOpenCount = SharedPreferencesManager.getInstance().readInt(BravePreferenceKeys.BRAVE_APP_OPEN_COUNT);
-        SharedPreferencesManager.getInstance().writeInt(BravePreferenceKeys.BRAVE_APP_OPEN_COUNT, appOpenCount + 1);
-
-        //set bg ads to off for existing and new installations
-        setBgBraveAdsDefaultOff();
+        long start = BraveTraceRecorder.begin();
+        final int appOpenCount =
+                SharedPreferencesManager.getInstance().readInt(BravePreferenceKeys.BRAVE_APP_OPEN_COUNT) + 1;
+
+        mStartupTaskRunner
+                .addTask("IncrementAppOpenCount", BraveStartupTaskRunner.CRITICAL,
+                        () -> SharedPreferencesManager.getInstance().writeInt(
+                                BravePreferenceKeys.BRAVE_APP_OPEN_COUNT, appOpenCount))
+                //set bg ads to off for existing and new installations
+                .addTask("SetBgBraveAdsDefaultOff", BraveStartupTaskRunner.CRITICAL,
+                        this::setBgBraveAdsDefaultOff)
+                .addTask("CheckForNotificationData", BraveStartupTaskRunner.CRITICAL,
+                        this::checkForNotificationData)
+                .addTask("ReadBraveStatsTotals", BraveStartupTaskRunner.CRITICAL,
+                        BraveStatsAggregator::readPersistedTotals)
+                .addTask("InitSyncWorker", BraveStartupTaskRunner.IDLE, () -> {
+                    Context app = ContextUtils.getApplicationContext();
+                    if (null != app && (this instanceof ChromeTabbedActivity)) {
+                        // Trigger BraveSyncWorker CTOR to make migration from sync v1 if sync is enabled
+                        BraveSyncReflectionUtils.getSyncWorker();
+                    }
+                })
+                .addTask("RateDialog", BraveStartupTaskRunner.IDLE, this::checkForRateDialog)
+                .addTask("Onboarding", BraveStartupTaskRunner.IDLE,
+                        () -> checkForOnboarding(appOpenCount))
+                .addTask("CrossPromoModal", BraveStartupTaskRunner.IDLE,
+                        () -> checkForCrossPromoModal(appOpenCount))
+                .addTask("SyncInformers", BraveStartupTaskRunner.IDLE,
+                        BraveSyncReflectionUtils::showInformers)
+                .addTask("ScheduleRetentionNotifications", BraveStartupTaskRunner.BACKGROUND,
+                        this::scheduleRetentionNotifications)
+                .addTask("FlushPendingReports", BraveStartupTaskRunner.IDLE,
+                        () -> BraveReportQueue.getInstance().flush())
+                .addTask("PreloadLottieAnimations", BraveStartupTaskRunner.IDLE,
+                        this::preloadLottieAnimations)
+                .addTask("PreInflateTopSiteTiles", BraveStartupTaskRunner.IDLE,
+                        mTopSiteTilePool::preInflate)
+                .run();
+        BraveTraceRecorder.end("BraveActivity.finishNativeInitialization", start);
+    }
 
-        Context app = ContextUtils.getApplicationContext();
-        if (null != app && (this instanceof ChromeTabbedActivity)) {
-            // Trigger BraveSyncWorker CTOR to make migration from sync v1 if sync is enabled
-            BraveSyncReflectionUtils.getSyncWorker();
-        }
+    @Override
+    protected void onDestroyInternal() {
+        mStartupTaskRunner.cancel();
+        mTopSiteTilePool.destroy();
+        super.onDestroyInternal();
+    }
 
-        checkForNotificationData();
+    public TopSiteTilePool getTopSiteTilePool() {
+        return mTopSiteTilePool;
+    }
 
+    private void checkForRateDialog() {
         if (!RateUtils.getInstance(this).getPrefRateEnabled()) {
             RateUtils.getInstance(this).setPrefRateEnabled(true);
             RateUtils.getInstance(this).setNextRateDateAndCount();
@@ -229,9 +289,19 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
 
         if (RateUtils.getInstance(this).shouldShowRateDialog())
             showBraveRateDialog();
+    }
 
-        if (PackageUtils.isFirstInstall(this)
-                && SharedPreferencesManager.getInstance().readInt(BravePreferenceKeys.BRAVE_APP_OPEN_COUNT) == 1) {
+    private void preloadLottieAnimations() {
+        if (OnboardingPrefManager.getInstance().shouldShowBadgeAnimation()) {
+            LottieCompositionCache.preload(BraveNewTabPageLayout.BADGE_ANIMATION);
+        }
+        if (!OnboardingPrefManager.getInstance().isNewOnboardingShown()) {
+            OnboardingV2Fragment.preloadAnimations();
+        }
+    }
+
+    private void checkForOnboarding(int appOpenCount) {
+        if (PackageUtils.isFirstInstall(this) && appOpenCount == 1) {
             Calendar calender = Calendar.getInstance();
             calender.setTime(new Date());
             calender.add(Calendar.DATE, DAYS_4);
@@ -251,8 +321,10 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
             OnboardingPrefManager.getInstance().showOnboarding(this);
             OnboardingPrefManager.getInstance().setOnboardingShownForSkip(true);
         }
+    }
 
-        if (SharedPreferencesManager.getInstance().readInt(BravePreferenceKeys.BRAVE_APP_OPEN_COUNT) == 1) {
+    private void checkForCrossPromoModal(int appOpenCount) {
+        if (appOpenCount == 1) {
             Calendar calender = Calendar.getInstance();
             calender.setTime(new Date());
             calender.add(Calendar.DATE, DAYS_12);
@@ -264,19 +336,21 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
             showCrossPromotionalDialog();
             OnboardingPrefManager.getInstance().setCrossPromoModalShown(true);
         }
-        BraveSyncReflectionUtils.showInformers();
+    }
 
+    private void scheduleRetentionNotifications() {
+        Context context = ContextUtils.getApplicationContext();
         if (!OnboardingPrefManager.getInstance().isOneTimeNotificationStarted()
-                && PackageUtils.isFirstInstall(this)) {
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.HOUR_3);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.HOUR_24);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DAY_6);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DAY_10);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DAY_30);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DAY_35);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DEFAULT_BROWSER_1);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DEFAULT_BROWSER_2);
-            RetentionNotificationUtil.scheduleNotification(this, RetentionNotificationUtil.DEFAULT_BROWSER_3);
+                && PackageUtils.isFirstInstall(context)) {
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.HOUR_3);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.HOUR_24);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DAY_6);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DAY_10);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DAY_30);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DAY_35);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DEFAULT_BROWSER_1);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DEFAULT_BROWSER_2);
+            RetentionNotificationUtil.scheduleNotification(context, RetentionNotificationUtil.DEFAULT_BROWSER_3);
             OnboardingPrefManager.getInstance().setOneTimeNotificationStarted(true);
         }
     }
@@ -365,7 +439,8 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
             channel.setDescription(description);
             // Register the channel with the system; you can't change the importance
             // or other notification behaviors after this
-            NotificationManager notificationManager = getSystemService(NotificationManager.class);
+            NotificationManager notificationManager =
+                    context.getSystemService(NotificationManager.class);
             notificationManager.createNotificationChannel(channel);
         }
     }
@@ -578,25 +653,40 @@ public abstract class BraveActivity<C extends ChromeActivityComponent> extends C
         }
     }
 
+    @Override
+    protected boolean shouldDelayBrowserStartup() {
+        // The rewards service must not open the database while it's being copied, native is
+        // started once the copy is done.
+        mDbOperationPending = BraveDbUtil.getInstance().dbOperationRequested();
+        return mDbOperationPending || super.shouldDelayBrowserStartup();
+    }
+
     @Override
     public void performPreInflationStartup() {
+        long start = BraveTraceRecorder.begin();
         BraveDbUtil dbUtil = BraveDbUtil.getInstance();
-        if (dbUtil.dbOperationRequested()) {
+        if (mDbOperationPending) {
             AlertDialog dialog = new AlertDialog.Builder(this)
             .setMessage(dbUtil.performDbExportOnStart() ? "Exporting database, please wait..."
                         : "Importing database, please wait...")
             .setCancelable(false)
             .create();
             dialog.setCanceledOnTouchOutside(false);
+            Runnable onDbOperationDone = () -> {
+                if (!isActivityFinishingOrDestroyed()) startDelayedNativeInitialization();
+            };
             if (dbUtil.performDbExportOnStart()) {
                 dbUtil.setPerformDbExportOnStart(false);
-                dbUtil.ExportRewardsDb(dialog);
+                dbUtil.ExportRewardsDb(dialog, onDbOperationDone);
             } else if (dbUtil.performDbImportOnStart() && !dbUtil.dbImportFile().isEmpty()) {
                 dbUtil.setPerformDbImportOnStart(false);
-                dbUtil.ImportRewardsDb(dialog, dbUtil.dbImportFile());
+                dbUtil.ImportRewardsDb(dialog, dbUtil.dbImportFile(), onDbOperationDone);
+            } else {
+                dbUtil.cleanUpDbOperationRequest();
+                PostTask.postTask(UiThreadTaskTraits.DEFAULT, onDbOperationDone);
             }
-            dbUtil.cleanUpDbOperationRequest();
         }
+        BraveTraceRecorder.end("BraveActivity.performPreInflationStartup", start);
         super.performPreInflationStartup();
     }
 
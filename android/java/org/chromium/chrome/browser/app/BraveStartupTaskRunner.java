@@ -0,0 +1,146 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.app;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import androidx.annotation.IntDef;
+
+import org.chromium.base.Log;
+import org.chromium.base.ThreadUtils;
+import org.chromium.base.task.PostTask;
+import org.chromium.base.task.TaskTraits;
+import org.chromium.chrome.browser.util.BraveTraceRecorder;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Brave specific startup work with an explicit priority and thread affinity.
+ *
+ * CRITICAL tasks run synchronously on the UI thread when {@link #run()} is called,
+ * IDLE tasks run on the UI thread one per idle pass of the main looper, and
+ * BACKGROUND tasks are posted to a best effort thread pool. Every task is recorded
+ * as a span in {@link BraveTraceRecorder}, and tasks that exceed their budget are logged.
+ */
+public class BraveStartupTaskRunner {
+    private static final String TAG = "BraveStartup";
+    private static final String SPAN_PREFIX = "StartupTask.";
+
+    // Budget for a single task on the UI thread, roughly one frame.
+    private static final long UI_TASK_BUDGET_MS = 16;
+    private static final long BACKGROUND_TASK_BUDGET_MS = 100;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({CRITICAL, IDLE, BACKGROUND})
+    public @interface Priority {}
+    public static final int CRITICAL = 0;
+    public static final int IDLE = 1;
+    public static final int BACKGROUND = 2;
+
+    private static class StartupTask {
+        final String mName;
+        @Priority
+        final int mPriority;
+        final Runnable mRunnable;
+
+        StartupTask(String name, @Priority int priority, Runnable runnable) {
+            mName = name;
+            mPriority = priority;
+            mRunnable = runnable;
+        }
+    }
+
+    private final List<StartupTask> mCriticalTasks = new ArrayList<>();
+    private final ArrayDeque<StartupTask> mIdleTasks = new ArrayDeque<>();
+    private final List<StartupTask> mBackgroundTasks = new ArrayList<>();
+    private volatile boolean mCancelled;
+    // Whether an idle handler is draining mIdleTasks, so that calling run() again doesn't add
+    // a second one and run two tasks per idle pass.
+    private boolean mIdleHandlerAdded;
+
+    /**
+     * Adds a task. Tasks of the same priority run in the order they were added.
+     */
+    public BraveStartupTaskRunner addTask(String name, @Priority int priority, Runnable task) {
+        StartupTask startupTask = new StartupTask(name, priority, task);
+        switch (priority) {
+            case CRITICAL:
+                mCriticalTasks.add(startupTask);
+                break;
+            case IDLE:
+                mIdleTasks.add(startupTask);
+                break;
+            case BACKGROUND:
+                mBackgroundTasks.add(startupTask);
+                break;
+        }
+        return this;
+    }
+
+    /**
+     * Runs critical tasks right away and schedules the rest. Must be called on the UI thread.
+     */
+    public void run() {
+        ThreadUtils.assertOnUiThread();
+        for (StartupTask task : mCriticalTasks) {
+            runTask(task);
+        }
+        mCriticalTasks.clear();
+
+        for (StartupTask task : mBackgroundTasks) {
+            PostTask.postTask(TaskTraits.BEST_EFFORT_MAY_BLOCK, () -> runTask(task));
+        }
+        mBackgroundTasks.clear();
+
+        if (mIdleTasks.isEmpty() || mIdleHandlerAdded) return;
+        mIdleHandlerAdded = true;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (mCancelled) {
+                    mIdleTasks.clear();
+                    mIdleHandlerAdded = false;
+                    return false;
+                }
+                StartupTask task = mIdleTasks.poll();
+                if (task != null) runTask(task);
+                mIdleHandlerAdded = !mIdleTasks.isEmpty();
+                return mIdleHandlerAdded;
+            }
+        });
+    }
+
+    /**
+     * Drops all tasks that have not started yet, e.g. when the activity is destroyed.
+     */
+    public void cancel() {
+        ThreadUtils.assertOnUiThread();
+        mCancelled = true;
+    }
+
+    private void runTask(StartupTask task) {
+        if (mCancelled) return;
+        long start = BraveTraceRecorder.begin();
+        try {
+            task.mRunnable.run();
+        } finally {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(
+                    BraveTraceRecorder.end(SPAN_PREFIX + task.mName, start));
+            long budgetMs =
+                    task.mPriority == BACKGROUND ? BACKGROUND_TASK_BUDGET_MS : UI_TASK_BUDGET_MS;
+            if (durationMs > budgetMs) {
+                Log.w(TAG, "Startup task %s took %d ms (budget %d ms)", task.mName, durationMs,
+                        budgetMs);
+            }
+        }
+    }
+}
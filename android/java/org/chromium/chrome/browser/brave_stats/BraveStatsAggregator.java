@@ -0,0 +1,314 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.brave_stats;
+
+import androidx.annotation.Nullable;
+
+import org.chromium.base.ThreadUtils;
+import org.chromium.chrome.browser.preferences.BravePrefServiceBridge;
+import org.chromium.chrome.browser.preferences.website.BraveShieldsContentSettings;
+import org.chromium.chrome.browser.profiles.Profile;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process wide, in-memory Brave Stats of the current session, fed directly by
+ * {@link BraveShieldsContentSettings} blocked and saved bandwidth events.
+ *
+ * Per-type counters and saved bytes are atomics, so totals are read in constant time from any
+ * thread without JNI or disk. They are merged with the totals persisted in prefs, which are
+ * read once per process on the UI thread by {@link #readPersistedTotals()}, once native is
+ * initialized: the session count at that moment is subtracted, so events counted both natively
+ * and here are not counted twice. Until then, totals are the session counts only.
+ *
+ * Events are counted the way the native pref counters are: a subresource is counted once per
+ * page load whatever its block type, and the bandwidth saved in incognito, which is not
+ * persisted for the regular profile, is left out.
+ *
+ * Per-domain (the page) and per-tracker (the blocked subresource host) counters of the session
+ * are kept in striped maps of primitive longs; only the stripe of the key is locked.
+ */
+public final class BraveStatsAggregator {
+    public static final int TYPE_ADS = 0;
+    public static final int TYPE_TRACKERS = 1;
+    public static final int TYPE_HTTPS_UPGRADES = 2;
+    public static final int TYPE_SCRIPTS = 3;
+    public static final int TYPE_FINGERPRINTING = 4;
+    private static final int TYPE_COUNT = 5;
+
+    private static final AtomicLongArray sSessionCounts = new AtomicLongArray(TYPE_COUNT);
+    private static final AtomicLong sSessionSavedBytes = new AtomicLong();
+    private static final StripedCounterMap sDomainCounts = new StripedCounterMap();
+    private static final StripedCounterMap sTrackerCounts = new StripedCounterMap();
+
+    // Page host and subresources already counted, per tab.
+    private static final Map<Integer, String> sTabDomains = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Set<String>> sTabSubresources =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Persisted totals minus the session counts at the time they were read.
+     */
+    private static final class Offsets {
+        final long mAds;
+        final long mTrackers;
+        final long mSavedBytes;
+
+        Offsets(long ads, long trackers, long savedBytes) {
+            mAds = ads;
+            mTrackers = trackers;
+            mSavedBytes = savedBytes;
+        }
+    }
+
+    private static volatile Offsets sOffsets = new Offsets(0, 0, 0);
+    // Only accessed on the UI thread.
+    private static boolean sPersistedTotalsRead;
+
+    private BraveStatsAggregator() {}
+
+    /**
+     * Records a blocked event of {@code blockType} for {@code subresource} in {@code tabId}.
+     */
+    public static void recordBlocked(int tabId, String blockType, String subresource) {
+        int type = getType(blockType);
+        if (type < 0 || subresource == null) return;
+        Set<String> counted = sTabSubresources.get(tabId);
+        if (counted == null) {
+            counted = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            Set<String> existing = sTabSubresources.putIfAbsent(tabId, counted);
+            if (existing != null) counted = existing;
+        }
+        if (!counted.add(subresource)) return;
+
+        sSessionCounts.incrementAndGet(type);
+        String domain = sTabDomains.get(tabId);
+        if (domain != null) sDomainCounts.increment(domain, 1);
+        String tracker = getHost(subresource);
+        if (tracker != null) sTrackerCounts.increment(tracker, 1);
+    }
+
+    /**
+     * Records {@code savings} bytes saved by a page load, in an incognito profile if
+     * {@code isOffTheRecord}.
+     */
+    public static void recordSavedBandwidth(long savings, boolean isOffTheRecord) {
+        if (savings > 0 && !isOffTheRecord) sSessionSavedBytes.addAndGet(savings);
+    }
+
+    /**
+     * Starts counting a new page in {@code tabId}.
+     */
+    public static void onPageLoadStarted(int tabId, String url) {
+        String domain = getHost(url);
+        if (domain != null) {
+            sTabDomains.put(tabId, domain);
+        } else {
+            sTabDomains.remove(tabId);
+        }
+        sTabSubresources.remove(tabId);
+    }
+
+    public static void onTabDestroyed(int tabId) {
+        sTabDomains.remove(tabId);
+        sTabSubresources.remove(tabId);
+    }
+
+    /**
+     * @return ads blocked since install, same as {@link BravePrefServiceBridge#getAdsBlockedCount}.
+     */
+    public static long getAdsBlockedCount() {
+        return sOffsets.mAds + sSessionCounts.get(TYPE_ADS);
+    }
+
+    /**
+     * @return trackers blocked since install. The native side counts new trackers as ads, so
+     * only the trackers migrated from old versions are persisted here.
+     */
+    public static long getTrackersBlockedCount() {
+        return sOffsets.mTrackers;
+    }
+
+    /**
+     * @return bytes saved since install, same as {@link BravePrefServiceBridge#getDataSaved}.
+     */
+    public static long getDataSaved() {
+        return sOffsets.mSavedBytes + sSessionSavedBytes.get();
+    }
+
+    /**
+     * @return count of {@code type} events blocked in this session.
+     */
+    public static long getSessionCount(int type) {
+        return sSessionCounts.get(type);
+    }
+
+    public static long getSessionSavedBytes() {
+        return sSessionSavedBytes.get();
+    }
+
+    /**
+     * @return items blocked on pages of {@code domain} in this session.
+     */
+    public static long getSessionDomainCount(String domain) {
+        return sDomainCounts.get(domain);
+    }
+
+    /**
+     * @return times subresources of {@code trackerHost} were blocked in this session.
+     */
+    public static long getSessionTrackerCount(String trackerHost) {
+        return sTrackerCounts.get(trackerHost);
+    }
+
+    public static Map<String, Long> getSessionDomainCounts() {
+        return sDomainCounts.snapshot();
+    }
+
+    public static Map<String, Long> getSessionTrackerCounts() {
+        return sTrackerCounts.snapshot();
+    }
+
+    /**
+     * Reads the totals persisted in prefs, the first time it is called. Prefs are only
+     * reachable through JNI, so this must be called on the UI thread once native is
+     * initialized; the totals are then published to readers on any thread.
+     */
+    public static void readPersistedTotals() {
+        ThreadUtils.assertOnUiThread();
+        if (sPersistedTotalsRead) return;
+        Profile profile = Profile.getLastUsedRegularProfile();
+        BravePrefServiceBridge bridge = BravePrefServiceBridge.getInstance();
+        // Events are dispatched on the UI thread as well, so the session counts can't change
+        // between these reads.
+        long sessionAds = sSessionCounts.get(TYPE_ADS);
+        long sessionSavedBytes = sSessionSavedBytes.get();
+        sOffsets = new Offsets(Math.max(0, bridge.getAdsBlockedCount(profile) - sessionAds),
+                bridge.getTrackersBlockedCount(profile),
+                Math.max(0, bridge.getDataSaved(profile) - sessionSavedBytes));
+        sPersistedTotalsRead = true;
+    }
+
+    private static int getType(String blockType) {
+        if (BraveShieldsContentSettings.RESOURCE_IDENTIFIER_ADS.equals(blockType)) {
+            return TYPE_ADS;
+        } else if (BraveShieldsContentSettings.RESOURCE_IDENTIFIER_TRACKERS.equals(blockType)) {
+            return TYPE_TRACKERS;
+        } else if (BraveShieldsContentSettings.RESOURCE_IDENTIFIER_HTTP_UPGRADABLE_RESOURCES
+                           .equals(blockType)) {
+            return TYPE_HTTPS_UPGRADES;
+        } else if (BraveShieldsContentSettings.RESOURCE_IDENTIFIER_JAVASCRIPTS.equals(blockType)) {
+            return TYPE_SCRIPTS;
+        } else if (BraveShieldsContentSettings.RESOURCE_IDENTIFIER_FINGERPRINTING.equals(
+                           blockType)) {
+            return TYPE_FINGERPRINTING;
+        }
+        return -1;
+    }
+
+    @Nullable
+    private static String getHost(String url) {
+        String host = UrlHostCache.getHost(url);
+        return host == null || host.isEmpty() ? null : host;
+    }
+
+    /**
+     * String to long counters, split into stripes by key hash. Each stripe is an open
+     * addressing table of primitive longs guarded by its own lock, so updates of different
+     * keys rarely contend and no boxed value is allocated per update.
+     */
+    private static class StripedCounterMap {
+        private static final int STRIPES = 16; // Must be a power of two.
+        private static final int INITIAL_CAPACITY = 16; // Per stripe, must be a power of two.
+
+        private final Stripe[] mStripes = new Stripe[STRIPES];
+
+        private static class Stripe {
+            String[] mKeys = new String[INITIAL_CAPACITY];
+            long[] mValues = new long[INITIAL_CAPACITY];
+            int mSize;
+        }
+
+        StripedCounterMap() {
+            for (int i = 0; i < STRIPES; i++) {
+                mStripes[i] = new Stripe();
+            }
+        }
+
+        void increment(String key, long delta) {
+            int hash = spread(key.hashCode());
+            Stripe stripe = mStripes[hash & (STRIPES - 1)];
+            synchronized (stripe) {
+                int slot = findSlot(stripe.mKeys, key, hash);
+                if (stripe.mKeys[slot] == null) {
+                    if ((stripe.mSize + 1) * 4 > stripe.mKeys.length * 3) {
+                        grow(stripe);
+                        slot = findSlot(stripe.mKeys, key, hash);
+                    }
+                    stripe.mKeys[slot] = key;
+                    stripe.mSize++;
+                }
+                stripe.mValues[slot] += delta;
+            }
+        }
+
+        long get(String key) {
+            int hash = spread(key.hashCode());
+            Stripe stripe = mStripes[hash & (STRIPES - 1)];
+            synchronized (stripe) {
+                int slot = findSlot(stripe.mKeys, key, hash);
+                return stripe.mKeys[slot] == null ? 0 : stripe.mValues[slot];
+            }
+        }
+
+        Map<String, Long> snapshot() {
+            Map<String, Long> snapshot = new HashMap<>();
+            for (Stripe stripe : mStripes) {
+                synchronized (stripe) {
+                    for (int i = 0; i < stripe.mKeys.length; i++) {
+                        if (stripe.mKeys[i] != null) snapshot.put(stripe.mKeys[i], stripe.mValues[i]);
+                    }
+                }
+            }
+            return snapshot;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        // Stripe bits are the low bits, so probing starts from the bits above them.
+        private static int findSlot(String[] keys, String key, int hash) {
+            int mask = keys.length - 1;
+            int slot = (hash >>> 4) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static void grow(Stripe stripe) {
+            String[] oldKeys = stripe.mKeys;
+            long[] oldValues = stripe.mValues;
+            String[] keys = new String[oldKeys.length * 2];
+            long[] values = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) continue;
+                int slot = findSlot(keys, oldKeys[i], spread(oldKeys[i].hashCode()));
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+            stripe.mKeys = keys;
+            stripe.mValues = values;
+        }
+    }
+}
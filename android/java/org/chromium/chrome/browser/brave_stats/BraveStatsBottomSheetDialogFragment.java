@@ -34,6 +34,8 @@ import androidx.viewpager.widget.PagerAdapter;
 import androidx.viewpager.widget.ViewPager;
 import androidx.fragment.app.FragmentTransaction;
 import androidx.fragment.app.FragmentManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.bottomsheet.BottomSheetBehavior;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
@@ -43,12 +45,9 @@ import com.google.android.material.tabs.TabLayout;
 import org.chromium.base.ContextUtils;
 import org.chromium.base.Log;
 import org.chromium.base.ThreadUtils;
-import org.chromium.base.task.AsyncTask;
 import org.chromium.chrome.R;
 import org.chromium.chrome.browser.brave_stats.BraveStatsUtil;
-import org.chromium.chrome.browser.local_database.BraveStatsTable;
-import org.chromium.chrome.browser.local_database.DatabaseHelper;
-import org.chromium.chrome.browser.local_database.SavedBandwidthTable;
+import org.chromium.chrome.browser.local_database.BraveDbRepository;
 import org.chromium.chrome.browser.ntp.BraveNewTabPageLayout;
 import org.chromium.chrome.browser.onboarding.OnboardingPrefManager;
 import org.chromium.chrome.browser.util.ConfigurationUtils;
@@ -61,7 +60,7 @@ import java.util.List;
 
 public class BraveStatsBottomSheetDialogFragment extends BottomSheetDialogFragment {
     final public static String TAG_FRAGMENT = "BRAVESTATS_FRAG";
-    private DatabaseHelper mDatabaseHelper = DatabaseHelper.getInstance();
+    private final BraveDbRepository.RequestGroup mDbRequests = new BraveDbRepository.RequestGroup();
 
     private static final int WEBSITES = 0;
     private static final int TRACKERS = 1;
@@ -70,6 +69,10 @@ public class BraveStatsBottomSheetDialogFragment extends BottomSheetDialogFragme
     private static final int DAYS_30 = -30;
     private static final int DAYS_90 = -90;
 
+    // Websites/trackers rows are fetched in pages of this size as the list is scrolled.
+    private static final int PAGE_SIZE = 50;
+    // Start fetching the next page when this many rows are left below the last visible one.
+    private static final int PREFETCH_ROWS = 20;
 
     private TextView adsTrackersCountText;
     private TextView adsTrackersText;
@@ -80,8 +83,17 @@ public class BraveStatsBottomSheetDialogFragment extends BottomSheetDialogFragme
     private TextView noDataText;
     private TextView braveStatsSubSectionText;
     private LinearLayout emptyDataLayout;
-    private LinearLayout websitesLayout;
-    private LinearLayout trackersLayout;
+    private RecyclerView mStatsList;
+    private LinearLayoutManager mStatsListLayoutManager;
+    private BraveStatsListAdapter mStatsListAdapter;
+
+    // Paging state of the websites/trackers rows.
+    private BraveDbRepository.Request mPageRequest;
+    private boolean mHasMoreRows;
+
+    // Last summary shown in the list header, applied again to each header the list inflates.
+    private long[] mHeaderCounts;
+    private Boolean mHasRows;
 
     private RadioButton monthRadioButton;
     private RadioButton monthsRadioButton;
@@ -143,31 +155,21 @@ public class BraveStatsBottomSheetDialogFragment extends BottomSheetDialogFragme
         monthRadioButton = view.findViewById(R.id.month_radio);
         monthsRadioButton = view.findViewById(R.id.months_radio);
 
-        LinearLayout layout = view.findViewById(R.id.brave_stats_layout);
-        adsTrackersCountText = layout.findViewById(R.id.ads_trackers_count_text);
-        adsTrackersText = layout.findViewById(R.id.ads_trackers_text);
-        dataSavedCountText = layout.findViewById(R.id.data_saved_count_text);
-        dataSavedText = layout.findViewById(R.id.data_saved_text);
-        timeSavedCountText = layout.findViewById(R.id.time_saved_count_text);
-        timeSavedText = layout.findViewById(R.id.time_saved_text);
-        websitesLayout = layout.findViewById(R.id.wesites_layout);
-        trackersLayout = layout.findViewById(R.id.trackers_layout);
-        braveStatsSubSectionText = layout.findViewById(R.id.brave_stats_sub_section_text);
-
-        RadioGroup statTypeRadioGroup = layout.findViewById(R.id.stat_type_radio_group);
-        statTypeRadioGroup.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
+        mStatsList = view.findViewById(R.id.brave_stats_list);
+        mStatsListAdapter = new BraveStatsListAdapter(this::bindHeader);
+        mStatsListLayoutManager = new LinearLayoutManager(getContext());
+        mStatsList.setLayoutManager(mStatsListLayoutManager);
+        mStatsList.setAdapter(mStatsListAdapter);
+        mStatsList.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
-            public void onCheckedChanged(RadioGroup radioGroup, int checkedId) {
-                if (checkedId == R.id.websites_radio) {
-                    selectedType = WEBSITES;
-                } else if (checkedId == R.id.trackers_radio) {
-                    selectedType = TRACKERS;
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = mStatsListLayoutManager.findLastVisibleItemPosition();
+                if (lastVisible + PREFETCH_ROWS >= mStatsListAdapter.getItemCount()) {
+                    loadNextPage();
                 }
-                showWebsitesTrackers();
             }
         });
-
-        noDataText = layout.findViewById(R.id.empty_data_text);
         ImageView btnClose = view.findViewById(R.id.brave_stats_bottom_sheet_close);
         btnClose.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -185,166 +187,182 @@ public class BraveStatsBottomSheetDialogFragment extends BottomSheetDialogFragme
 
     @Override
     public void onDestroyView() {
+        mDbRequests.cancelAll();
         getActivity().setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_UNSPECIFIED);
         super.onDestroyView();
     }
 
-    private void updateBraveStatsLayoutAsync() {
-        new AsyncTask<Void>() {
-            long adsTrackersCount = 0L;
-            long totalSavedBandwidth = 0L;
-            long adsTrackersCountToCheckForMonth = 0L;
-            long adsTrackersCountToCheckFor3Month = 0L;
-            @Override
-            protected Void doInBackground() {
-                adsTrackersCount =
-                    mDatabaseHelper
-                    .getAllStatsWithDate(BraveStatsUtil.getCalculatedDate(
-                                             "yyyy-MM-dd", selectedDuration),
-                                         BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0))
-                    .size();
-                totalSavedBandwidth = mDatabaseHelper.getTotalSavedBandwidthWithDate(
-                                          BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", selectedDuration),
-                                          BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
-                adsTrackersCountToCheckForMonth =
-                    mDatabaseHelper
-                    .getAllStatsWithDate(
-                        BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_30),
-                        BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_7))
-                    .size();
-                adsTrackersCountToCheckFor3Month =
-                    mDatabaseHelper
-                    .getAllStatsWithDate(
-                        BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_90),
-                        BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_30))
-                    .size();
-                return null;
-            }
+    /**
+     * Sets up a header inflated by the list, which from now on is the one that is updated.
+     */
+    private void bindHeader(View layout) {
+        adsTrackersCountText = layout.findViewById(R.id.ads_trackers_count_text);
+        adsTrackersText = layout.findViewById(R.id.ads_trackers_text);
+        dataSavedCountText = layout.findViewById(R.id.data_saved_count_text);
+        dataSavedText = layout.findViewById(R.id.data_saved_text);
+        timeSavedCountText = layout.findViewById(R.id.time_saved_count_text);
+        timeSavedText = layout.findViewById(R.id.time_saved_text);
+        braveStatsSubSectionText = layout.findViewById(R.id.brave_stats_sub_section_text);
+        noDataText = layout.findViewById(R.id.empty_data_text);
 
+        RadioGroup statTypeRadioGroup = layout.findViewById(R.id.stat_type_radio_group);
+        statTypeRadioGroup.check(
+                selectedType == TRACKERS ? R.id.trackers_radio : R.id.websites_radio);
+        statTypeRadioGroup.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
             @Override
-            protected void onPostExecute(Void result) {
-                assert ThreadUtils.runningOnUiThread();
-                if (isCancelled()) return;
-                Pair<String, String> adsTrackersPair =
-                    BraveStatsUtil.getBraveStatsStringFormNumberPair(adsTrackersCount, false);
-                adsTrackersCountText.setText(
-                    String.format(getResources().getString(R.string.ntp_stat_text),
-                                  adsTrackersPair.first, adsTrackersPair.second));
-
-                Pair<String, String> dataSavedPair =
-                    BraveStatsUtil.getBraveStatsStringFormNumberPair(totalSavedBandwidth, true);
-                dataSavedCountText.setText(dataSavedPair.first);
-                boolean isTablet = DeviceFormFactor.isNonMultiDisplayContextOnTablet(getActivity());
-                if (isTablet) {
-                    adsTrackersText.setText(
-                        String.format(mContext.getResources().getString(R.string.trackers_and_ads),
-                                      dataSavedPair.second));
-                    dataSavedText.setText(
-                        String.format(mContext.getResources().getString(R.string.data_saved_tablet_text),
-                                      dataSavedPair.second));
-                } else {
-                    adsTrackersText.setText(
-                        String.format(mContext.getResources().getString(R.string.ads_trackers_text),
-                                      dataSavedPair.second));
-                    dataSavedText.setText(
-                        String.format(mContext.getResources().getString(R.string.data_saved_text),
-                                      dataSavedPair.second));
+            public void onCheckedChanged(RadioGroup radioGroup, int checkedId) {
+                if (checkedId == R.id.websites_radio) {
+                    selectedType = WEBSITES;
+                } else if (checkedId == R.id.trackers_radio) {
+                    selectedType = TRACKERS;
                 }
+                showWebsitesTrackers();
+            }
+        });
 
-                long timeSavedCount =
-                    adsTrackersCount * BraveNewTabPageLayout.MILLISECONDS_PER_ITEM;
-                timeSavedCountText.setText(
-                    BraveStatsUtil.getBraveStatsStringFromTime(timeSavedCount / 1000));
-                timeSavedText.setText(mContext.getResources().getString(R.string.time_saved_text));
+        updateHeaderCounts();
+        updateHeaderRows();
+    }
 
-                if (adsTrackersCount > 0) {
-                    emptyDataLayout.setVisibility(View.GONE);
-                } else {
-                    emptyDataLayout.setVisibility(View.VISIBLE);
-                }
+    private void updateBraveStatsLayoutAsync() {
+        final int duration = selectedDuration;
+        mDbRequests.add(BraveDbRepository.getInstance().read(helper -> {
+            long[] counts = new long[4];
+            counts[0] = helper.getStatsCountWithDate(
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", duration),
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
+            counts[1] = helper.getTotalSavedBandwidthWithDate(
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", duration),
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
+            counts[2] = helper.getStatsCountWithDate(
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_30),
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_7));
+            counts[3] = helper.getStatsCountWithDate(
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_90),
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", DAYS_30));
+            return counts;
+        }, counts -> {
+            long adsTrackersCount = counts[0];
+            long adsTrackersCountToCheckForMonth = counts[2];
+            long adsTrackersCountToCheckFor3Month = counts[3];
+            mHeaderCounts = counts;
+            updateHeaderCounts();
+
+            if (adsTrackersCount > 0) {
+                emptyDataLayout.setVisibility(View.GONE);
+            } else {
+                emptyDataLayout.setVisibility(View.VISIBLE);
+            }
 
-                // Check for month option
-                if (adsTrackersCountToCheckForMonth > 0) {
-                    monthRadioButton.setEnabled(true);
-                    monthRadioButton.setAlpha(1.0f);
-                } else {
-                    monthRadioButton.setEnabled(false);
-                    monthRadioButton.setAlpha(0.2f);
-                }
+            // Check for month option
+            if (adsTrackersCountToCheckForMonth > 0) {
+                monthRadioButton.setEnabled(true);
+                monthRadioButton.setAlpha(1.0f);
+            } else {
+                monthRadioButton.setEnabled(false);
+                monthRadioButton.setAlpha(0.2f);
+            }
 
-                // Check for 3 month option
-                if (adsTrackersCountToCheckFor3Month > 0) {
-                    monthsRadioButton.setEnabled(true);
-                    monthsRadioButton.setAlpha(1.0f);
-                } else {
-                    monthsRadioButton.setEnabled(false);
-                    monthsRadioButton.setAlpha(0.2f);
-                }
-                showWebsitesTrackers();
+            // Check for 3 month option
+            if (adsTrackersCountToCheckFor3Month > 0) {
+                monthsRadioButton.setEnabled(true);
+                monthsRadioButton.setAlpha(1.0f);
+            } else {
+                monthsRadioButton.setEnabled(false);
+                monthsRadioButton.setAlpha(0.2f);
             }
-        } .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            showWebsitesTrackers();
+        }));
     }
 
+    private void updateHeaderCounts() {
+        if (mHeaderCounts == null || adsTrackersCountText == null) return;
+        long adsTrackersCount = mHeaderCounts[0];
+        long totalSavedBandwidth = mHeaderCounts[1];
+        Pair<String, String> adsTrackersPair =
+            BraveStatsUtil.getBraveStatsStringFormNumberPair(adsTrackersCount, false);
+        adsTrackersCountText.setText(
+            String.format(getResources().getString(R.string.ntp_stat_text),
+                          adsTrackersPair.first, adsTrackersPair.second));
+
+        Pair<String, String> dataSavedPair =
+            BraveStatsUtil.getBraveStatsStringFormNumberPair(totalSavedBandwidth, true);
+        dataSavedCountText.setText(dataSavedPair.first);
+        boolean isTablet = DeviceFormFactor.isNonMultiDisplayContextOnTablet(getActivity());
+        if (isTablet) {
+            adsTrackersText.setText(
+                String.format(mContext.getResources().getString(R.string.trackers_and_ads),
+                              dataSavedPair.second));
+            dataSavedText.setText(
+                String.format(mContext.getResources().getString(R.string.data_saved_tablet_text),
+                              dataSavedPair.second));
+        } else {
+            adsTrackersText.setText(
+                String.format(mContext.getResources().getString(R.string.ads_trackers_text),
+                              dataSavedPair.second));
+            dataSavedText.setText(
+                String.format(mContext.getResources().getString(R.string.data_saved_text),
+                              dataSavedPair.second));
+        }
+
+        long timeSavedCount =
+            adsTrackersCount * BraveNewTabPageLayout.MILLISECONDS_PER_ITEM;
+        timeSavedCountText.setText(
+            BraveStatsUtil.getBraveStatsStringFromTime(timeSavedCount / 1000));
+        timeSavedText.setText(mContext.getResources().getString(R.string.time_saved_text));
+    }
+
+    private void updateHeaderRows() {
+        if (mHasRows == null || noDataText == null) return;
+        if (mHasRows) {
+            noDataText.setVisibility(View.GONE);
+            braveStatsSubSectionText.setVisibility(View.VISIBLE);
+        } else {
+            noDataText.setVisibility(View.VISIBLE);
+            braveStatsSubSectionText.setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * Shows the first page of websites or trackers for the selected type and duration.
+     */
     private void showWebsitesTrackers() {
-        new AsyncTask<Void>() {
-            List<Pair<String, Integer>> websiteTrackers = null;
-            @Override
-            protected Void doInBackground() {
-                if (selectedType == WEBSITES) {
-                    websiteTrackers = mDatabaseHelper.getStatsWithDate(
-                                          BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", selectedDuration),
-                                          BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
-                } else {
-                    websiteTrackers = mDatabaseHelper.getSitesWithDate(
-                                          BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", selectedDuration),
-                                          BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
-                }
-                return null;
-            }
+        if (mPageRequest != null) mPageRequest.cancel();
+        mHasMoreRows = false;
+        loadPage(null);
+    }
 
-            @Override
-            protected void onPostExecute(Void result) {
-                assert ThreadUtils.runningOnUiThread();
-                if (isCancelled()) return;
-                LinearLayout rootView = null;
-                if (selectedType == WEBSITES) {
-                    websitesLayout.setVisibility(View.VISIBLE);
-                    trackersLayout.setVisibility(View.GONE);
-                    rootView = websitesLayout;
-                } else {
-                    websitesLayout.setVisibility(View.GONE);
-                    trackersLayout.setVisibility(View.VISIBLE);
-                    rootView = trackersLayout;
-                }
+    private void loadNextPage() {
+        if (!mHasMoreRows || (mPageRequest != null && !mPageRequest.isFinished())) return;
+        loadPage(mStatsListAdapter.getLastItem());
+    }
 
-                rootView.removeAllViews();
-
-                if (websiteTrackers.size() > 0) {
-                    for (Pair<String, Integer> statPair : websiteTrackers) {
-                        LayoutInflater inflater = LayoutInflater.from(mContext);
-                        ViewGroup layout =
-                            (ViewGroup) inflater.inflate(R.layout.tracker_item_layout, null);
-
-                        TextView mTrackerCountText =
-                            (TextView) layout.findViewById(R.id.tracker_count_text);
-                        TextView mSiteText = (TextView) layout.findViewById(R.id.site_text);
-
-                        mTrackerCountText.setText(String.valueOf(statPair.second));
-                        mTrackerCountText.setTextColor(
-                            getResources().getColor(R.color.brave_stats_text_color));
-                        mSiteText.setText(statPair.first);
-                        mSiteText.setTextColor(
-                            getResources().getColor(R.color.brave_stats_text_color));
-
-                        rootView.addView(layout);
-                    }
-                    noDataText.setVisibility(View.GONE);
-                    braveStatsSubSectionText.setVisibility(View.VISIBLE);
-                } else {
-                    noDataText.setVisibility(View.VISIBLE);
-                    braveStatsSubSectionText.setVisibility(View.GONE);
-                }
+    /**
+     * Loads the page of rows that follows {@code after} in the list order, or the first page if
+     * it is null.
+     */
+    private void loadPage(@Nullable Pair<String, Integer> after) {
+        final int type = selectedType;
+        final int duration = selectedDuration;
+        mPageRequest = mDbRequests.add(BraveDbRepository.getInstance().read(helper -> {
+            if (type == WEBSITES) {
+                return helper.getStatsWithDate(
+                        BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", duration),
+                        BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0), PAGE_SIZE, after);
             }
-        } .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            return helper.getSitesWithDate(
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", duration),
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0), PAGE_SIZE, after);
+        }, websiteTrackers -> {
+            mHasMoreRows = websiteTrackers.size() == PAGE_SIZE;
+            if (after != null) {
+                mStatsListAdapter.addItems(websiteTrackers);
+                return;
+            }
+
+            mStatsListAdapter.setItems(websiteTrackers);
+            mHasRows = websiteTrackers.size() > 0;
+            updateHeaderRows();
+        }));
     }
 }
@@ -0,0 +1,168 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.brave_stats;
+
+import android.util.Pair;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.chromium.chrome.R;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapter of the Brave Stats sheet: the stats summary as a header, followed by the websites
+ * or trackers rows. Rows are added page by page; replacing them, e.g. when the time range
+ * changes, is dispatched as a diff so unchanged rows keep their views.
+ *
+ * The RecyclerView may create more than one header holder, e.g. while animating a change, so
+ * each holder inflates its own header and hands it to the {@link HeaderBinder}.
+ */
+class BraveStatsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    private static final int TYPE_HEADER = 0;
+    private static final int TYPE_ITEM = 1;
+
+    /**
+     * Fills in a newly inflated header with the current summary.
+     */
+    interface HeaderBinder {
+        void bindHeader(View header);
+    }
+
+    private final HeaderBinder mHeaderBinder;
+    private final List<Pair<String, Integer>> mItems = new ArrayList<>();
+
+    private static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        HeaderViewHolder(View view) {
+            super(view);
+        }
+    }
+
+    private static class ItemViewHolder extends RecyclerView.ViewHolder {
+        final TextView mCountText;
+        final TextView mSiteText;
+
+        ItemViewHolder(View view) {
+            super(view);
+            mCountText = view.findViewById(R.id.tracker_count_text);
+            mSiteText = view.findViewById(R.id.site_text);
+        }
+    }
+
+    BraveStatsListAdapter(HeaderBinder headerBinder) {
+        mHeaderBinder = headerBinder;
+    }
+
+    /**
+     * @return the last row, which the next page starts after, or null if there are no rows.
+     */
+    @Nullable
+    Pair<String, Integer> getLastItem() {
+        return mItems.isEmpty() ? null : mItems.get(mItems.size() - 1);
+    }
+
+    /**
+     * Replaces all rows with {@code items}, typically the first page of a new query.
+     */
+    void setItems(List<Pair<String, Integer>> items) {
+        List<Pair<String, Integer>> oldItems = new ArrayList<>(mItems);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldItems.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return items.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return oldItems.get(oldPosition).first.equals(items.get(newPosition).first);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return oldItems.get(oldPosition).second.equals(items.get(newPosition).second);
+            }
+        });
+        mItems.clear();
+        mItems.addAll(items);
+        // Positions in the diff don't count the header.
+        diff.dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                notifyItemRangeInserted(position + 1, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                notifyItemRangeRemoved(position + 1, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                notifyItemMoved(fromPosition + 1, toPosition + 1);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                notifyItemRangeChanged(position + 1, count, payload);
+            }
+        });
+    }
+
+    /**
+     * Appends the next page of rows.
+     */
+    void addItems(List<Pair<String, Integer>> items) {
+        int start = mItems.size();
+        mItems.addAll(items);
+        notifyItemRangeInserted(start + 1, items.size());
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size() + 1;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position == 0 ? TYPE_HEADER : TYPE_ITEM;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == TYPE_HEADER) {
+            View header = inflater.inflate(R.layout.brave_stats_header_layout, parent, false);
+            mHeaderBinder.bindHeader(header);
+            return new HeaderViewHolder(header);
+        }
+        return new ItemViewHolder(
+                inflater.inflate(R.layout.tracker_item_layout, parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if (!(holder instanceof ItemViewHolder)) return;
+        Pair<String, Integer> statPair = mItems.get(position - 1);
+        ItemViewHolder itemHolder = (ItemViewHolder) holder;
+        itemHolder.mCountText.setText(String.valueOf(statPair.second));
+        itemHolder.mSiteText.setText(statPair.first);
+    }
+}
@@ -0,0 +1,158 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.brave_stats;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hosts of the URLs of blocked events, for Brave Stats.
+ *
+ * A page with hundreds of blocked subresources reports its own URL, and often the same few
+ * tracker origins, with each of them. Hosts are found by scanning the scheme://host prefix of
+ * the URL instead of parsing it, and kept in a small LRU map keyed by that prefix, so a known
+ * origin is looked up without allocating and every caller gets the same interned host string.
+ */
+public final class UrlHostCache {
+    @VisibleForTesting
+    static final int MAX_ENTRIES = 128;
+
+    /**
+     * The scheme://authority prefix of a URL. Lookups wrap the URL as is, only the prefixes
+     * stored in the map are copied.
+     */
+    private static final class Prefix {
+        private String mUrl;
+        private int mLength;
+        private int mHash;
+
+        void set(String url, int length) {
+            mUrl = url;
+            mLength = length;
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + url.charAt(i);
+            }
+            mHash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Prefix)) return false;
+            Prefix prefix = (Prefix) other;
+            return mHash == prefix.mHash && mLength == prefix.mLength
+                    && mUrl.regionMatches(0, prefix.mUrl, 0, mLength);
+        }
+    }
+
+    private static final Map<Prefix, String> sHosts =
+            new LinkedHashMap<Prefix, String>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Prefix, String> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+    // Guarded by sHosts.
+    private static final Prefix sLookup = new Prefix();
+    private static int sMissCount;
+
+    private UrlHostCache() {}
+
+    /**
+     * @return the host of {@code url}, possibly empty, or null if it has no scheme://
+     * prefix.
+     */
+    @Nullable
+    public static String getHost(@Nullable String url) {
+        if (url == null) return null;
+        int authorityStart = getAuthorityStart(url);
+        if (authorityStart < 0) return null;
+        int authorityEnd = getAuthorityEnd(url, authorityStart);
+
+        synchronized (sHosts) {
+            sLookup.set(url, authorityEnd);
+            String host = sHosts.get(sLookup);
+            sLookup.mUrl = null;
+            if (host != null) return host;
+        }
+
+        String host = extractHost(url, authorityStart, authorityEnd).intern();
+        Prefix prefix = new Prefix();
+        prefix.set(url.substring(0, authorityEnd), authorityEnd);
+        synchronized (sHosts) {
+            sHosts.put(prefix, host);
+            sMissCount++;
+        }
+        return host;
+    }
+
+    /**
+     * @return how many times a host was extracted because its prefix was not in the map.
+     */
+    @VisibleForTesting
+    static int getMissCountForTesting() {
+        synchronized (sHosts) {
+            return sMissCount;
+        }
+    }
+
+    @VisibleForTesting
+    static void clearForTesting() {
+        synchronized (sHosts) {
+            sHosts.clear();
+            sMissCount = 0;
+        }
+    }
+
+    /**
+     * @return the index after the "://" that follows the scheme, or -1 if there is none.
+     */
+    private static int getAuthorityStart(String url) {
+        int length = url.length();
+        int i = 0;
+        while (i < length && isSchemeChar(url.charAt(i), i == 0)) i++;
+        if (i == 0 || !url.startsWith("://", i)) return -1;
+        return i + 3;
+    }
+
+    private static boolean isSchemeChar(char c, boolean first) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) return true;
+        if (first) return false;
+        return (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+    }
+
+    private static int getAuthorityEnd(String url, int authorityStart) {
+        int length = url.length();
+        for (int i = authorityStart; i < length; i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#' || c == '\\') return i;
+        }
+        return length;
+    }
+
+    private static String extractHost(String url, int authorityStart, int authorityEnd) {
+        int hostStart = url.lastIndexOf('@', authorityEnd - 1) + 1;
+        if (hostStart < authorityStart) hostStart = authorityStart;
+        int hostEnd = authorityEnd;
+        if (hostStart < authorityEnd && url.charAt(hostStart) == '[') {
+            // IPv6 literal, the host keeps its brackets like URL#getHost() does.
+            int bracketEnd = url.indexOf(']', hostStart);
+            if (bracketEnd >= 0 && bracketEnd < authorityEnd) hostEnd = bracketEnd + 1;
+        } else {
+            int portStart = url.indexOf(':', hostStart);
+            if (portStart >= 0 && portStart < authorityEnd) hostEnd = portStart;
+        }
+        return url.substring(hostStart, hostEnd);
+    }
+}
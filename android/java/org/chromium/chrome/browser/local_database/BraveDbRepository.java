@@ -0,0 +1,167 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.local_database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import org.chromium.base.Callback;
+import org.chromium.base.Log;
+import org.chromium.base.task.PostTask;
+import org.chromium.base.task.SequencedTaskRunner;
+import org.chromium.base.task.TaskTraits;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Asynchronous access to brave_db. This is the only way to reach {@link DatabaseHelper}
+ * from outside of this package.
+ *
+ * The database runs in write-ahead-logging mode. Writes are serialized on a single writer
+ * sequence, reads run on the thread pool and don't wait for writes in progress.
+ * Results are delivered on the thread that issued the request when it has a Looper,
+ * otherwise on the database thread. Callbacks of failed operations are not called.
+ *
+ * Usage:
+ *     mDbRequests.add(BraveDbRepository.getInstance().read(
+ *             helper -> helper.getTotalSavedBandwidth(), total -> updateUi(total)));
+ *     ...
+ *     mDbRequests.cancelAll(); // e.g. in onDestroyView()
+ */
+public class BraveDbRepository {
+    private static final String TAG = "BraveDbRepository";
+
+    private static BraveDbRepository sInstance;
+
+    private final DatabaseHelper mHelper;
+    private final SequencedTaskRunner mWriteTaskRunner;
+
+    /**
+     * A database operation, run on a background thread.
+     */
+    public interface Operation<T> {
+        T run(DatabaseHelper helper);
+    }
+
+    /**
+     * Handle of a pending request. Cancelling it drops the callback. A cancelled read is
+     * skipped if it has not started yet, a write is always performed.
+     */
+    public static class Request {
+        private volatile boolean mCancelled;
+        private volatile boolean mFinished;
+
+        public void cancel() {
+            mCancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return mCancelled;
+        }
+
+        /**
+         * @return whether the operation has completed, or failed, and its callback is no
+         * longer pending.
+         */
+        public boolean isFinished() {
+            return mFinished;
+        }
+    }
+
+    /**
+     * Requests that share a lifecycle, e.g. of a fragment or a view. Not thread safe, use it
+     * on the thread that owns the lifecycle.
+     */
+    public static class RequestGroup {
+        private final List<Request> mRequests = new ArrayList<>();
+
+        public Request add(Request request) {
+            Iterator<Request> iterator = mRequests.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isFinished()) iterator.remove();
+            }
+            mRequests.add(request);
+            return request;
+        }
+
+        public void cancelAll() {
+            for (Request request : mRequests) {
+                request.cancel();
+            }
+            mRequests.clear();
+        }
+    }
+
+    public static synchronized BraveDbRepository getInstance() {
+        if (sInstance == null) {
+            sInstance = new BraveDbRepository(DatabaseHelper.getInstance());
+        }
+        return sInstance;
+    }
+
+    private BraveDbRepository(DatabaseHelper helper) {
+        mHelper = helper;
+        mWriteTaskRunner = PostTask.createSequencedTaskRunner(TaskTraits.USER_VISIBLE_MAY_BLOCK);
+    }
+
+    /**
+     * Runs a read only {@code operation} concurrently with other reads and writes.
+     */
+    public <T> Request read(Operation<T> operation, @Nullable Callback<T> callback) {
+        Request request = new Request();
+        Handler handler = createCallerHandler();
+        PostTask.postTask(TaskTraits.USER_VISIBLE_MAY_BLOCK,
+                () -> runOperation(request, operation, callback, handler, true));
+        return request;
+    }
+
+    /**
+     * Runs {@code operation} on the writer sequence, after all writes requested before it.
+     */
+    public <T> Request write(Operation<T> operation, @Nullable Callback<T> callback) {
+        Request request = new Request();
+        Handler handler = createCallerHandler();
+        mWriteTaskRunner.postTask(
+                () -> runOperation(request, operation, callback, handler, false));
+        return request;
+    }
+
+    private <T> void runOperation(Request request, Operation<T> operation,
+            @Nullable Callback<T> callback, @Nullable Handler handler, boolean skipIfCancelled) {
+        if (skipIfCancelled && request.isCancelled()) {
+            request.mFinished = true;
+            return;
+        }
+        T result;
+        try {
+            result = operation.run(mHelper);
+        } catch (RuntimeException e) {
+            // Typically SQLiteException, e.g. the disk is full. There is nothing to deliver.
+            Log.e(TAG, "Database operation failed: " + e);
+            request.mFinished = true;
+            return;
+        }
+        Runnable deliver = () -> {
+            request.mFinished = true;
+            if (callback != null && !request.isCancelled()) callback.onResult(result);
+        };
+        if (handler != null) {
+            handler.post(deliver);
+        } else {
+            deliver.run();
+        }
+    }
+
+    @Nullable
+    private static Handler createCallerHandler() {
+        Looper looper = Looper.myLooper();
+        return looper != null ? new Handler(looper) : null;
+    }
+}
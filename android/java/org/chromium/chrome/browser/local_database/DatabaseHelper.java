@@ -8,10 +8,14 @@ package org.chromium.chrome.browser.local_database;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.util.Pair;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,6 +24,10 @@ import org.chromium.base.ContextUtils;
 import org.chromium.chrome.browser.ntp_background_images.model.TopSite;
 import org.chromium.chrome.browser.ntp_background_images.util.NTPUtil;
 
+/**
+ * Access to brave_db. Use it through {@link BraveDbRepository}, which runs all operations
+ * off the UI thread.
+ */
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static volatile DatabaseHelper mInstance;
@@ -30,7 +38,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     // Database Name
     private static final String DATABASE_NAME = "brave_db";
 
-    public static synchronized DatabaseHelper getInstance() {
+    static synchronized DatabaseHelper getInstance() {
         if (mInstance == null) {
             Context context = ContextUtils.getApplicationContext();
             mInstance = new DatabaseHelper(context);
@@ -38,8 +46,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return mInstance;
     }
 
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    @VisibleForTesting
+    DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        // Lets readers use their own connections, so they don't wait for stats writes.
+        setWriteAheadLoggingEnabled(true);
     }
 
     // Creating Tables
@@ -228,47 +243,63 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     public List<Pair<String, Integer>> getStatsWithDate(String thresholdTime, String currentTime) {
-        List<Pair<String, Integer>> braveStats = new ArrayList<>();
-
-        String selectQuery = "SELECT  " + BraveStatsTable.COLUMN_DOMAIN + ", " + BraveStatsTable.COLUMN_TIMESTAMP + " , COUNT(*) as stat_count FROM "
-                             + BraveStatsTable.TABLE_NAME
-                             + " WHERE " + BraveStatsTable.COLUMN_TIMESTAMP
-                             + " BETWEEN date('" + thresholdTime + "') AND date('" + currentTime + "')"
-                             + " GROUP BY " + BraveStatsTable.COLUMN_DOMAIN
-                             + " ORDER BY stat_count DESC";
-
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(selectQuery, null);
+        return getStatsWithDate(thresholdTime, currentTime, -1, null);
+    }
 
-        if (cursor.moveToFirst()) {
-            do {
-                Pair<String, Integer> statPair = new Pair<>(cursor.getString(cursor.getColumnIndex(BraveStatsTable.COLUMN_DOMAIN)), cursor.getInt(cursor.getColumnIndex("stat_count")));
-                braveStats.add(statPair);
-            } while (cursor.moveToNext());
-        }
+    /**
+     * Returns one page of the websites with the most blocked items, up to {@code limit} rows
+     * following {@code after}, or from the start if it is null. A negative limit returns all
+     * rows.
+     */
+    public List<Pair<String, Integer>> getStatsWithDate(String thresholdTime, String currentTime,
+            int limit, @Nullable Pair<String, Integer> after) {
+        return getCountsByColumn(
+                BraveStatsTable.COLUMN_DOMAIN, thresholdTime, currentTime, limit, after);
+    }
 
-        cursor.close();
+    public List<Pair<String, Integer>> getSitesWithDate(String thresholdTime, String currentTime) {
+        return getSitesWithDate(thresholdTime, currentTime, -1, null);
+    }
 
-        return braveStats;
+    /**
+     * Returns one page of the most blocked tracker sites, up to {@code limit} rows following
+     * {@code after}, or from the start if it is null. A negative limit returns all rows.
+     */
+    public List<Pair<String, Integer>> getSitesWithDate(String thresholdTime, String currentTime,
+            int limit, @Nullable Pair<String, Integer> after) {
+        return getCountsByColumn(
+                BraveStatsTable.COLUMN_STAT_SITE_DOMAIN, thresholdTime, currentTime, limit, after);
     }
 
-    public List<Pair<String, Integer>> getSitesWithDate(String thresholdTime, String currentTime) {
+    /**
+     * Counts the stats between the two dates by the values of {@code column}, most counted
+     * first. Pages are found by the (count, value) of the last row of the previous page rather
+     * than by an offset, so rows inserted while the list is scrolled don't shift the pages.
+     */
+    private List<Pair<String, Integer>> getCountsByColumn(String column, String thresholdTime,
+            String currentTime, int limit, @Nullable Pair<String, Integer> after) {
         List<Pair<String, Integer>> braveStats = new ArrayList<>();
-        // Select All Query
-        String selectQuery = "SELECT  " + BraveStatsTable.COLUMN_STAT_SITE_DOMAIN + ", COUNT(*) as site_count FROM "
+        // The value breaks ties in the count, so the order is total and pages don't overlap.
+        String value = "IFNULL(" + column + ", '')";
+        String selectQuery = "SELECT  " + column + ", COUNT(*) as row_count FROM "
                              + BraveStatsTable.TABLE_NAME
                              + " WHERE " + BraveStatsTable.COLUMN_TIMESTAMP
                              + " BETWEEN date('" + thresholdTime + "') AND date('" + currentTime + "')"
-                             + " GROUP BY " + BraveStatsTable.COLUMN_STAT_SITE_DOMAIN
-                             + " ORDER BY site_count DESC";
+                             + " GROUP BY " + column;
+        String[] selectionArgs = null;
+        if (after != null) {
+            selectQuery += " HAVING row_count < " + after.second
+                           + " OR (row_count = " + after.second + " AND " + value + " > ?)";
+            selectionArgs = new String[] {after.first != null ? after.first : ""};
+        }
+        selectQuery += " ORDER BY row_count DESC, " + value + " LIMIT " + limit;
 
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(selectQuery, null);
+        Cursor cursor = db.rawQuery(selectQuery, selectionArgs);
 
-        // looping through all rows and adding to list
         if (cursor.moveToFirst()) {
             do {
-                Pair<String, Integer> statPair = new Pair<>(cursor.getString(cursor.getColumnIndex(BraveStatsTable.COLUMN_STAT_SITE_DOMAIN)), cursor.getInt(cursor.getColumnIndex("site_count")));
+                Pair<String, Integer> statPair = new Pair<>(cursor.getString(0), cursor.getInt(1));
                 braveStats.add(statPair);
             } while (cursor.moveToNext());
         }
@@ -278,6 +309,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return braveStats;
     }
 
+    public long getStatsCount() {
+        return DatabaseUtils.queryNumEntries(
+                getReadableDatabase(), BraveStatsTable.TABLE_NAME);
+    }
+
+    public long getStatsCountWithDate(String thresholdTime, String currentTime) {
+        return DatabaseUtils.queryNumEntries(getReadableDatabase(), BraveStatsTable.TABLE_NAME,
+                BraveStatsTable.COLUMN_TIMESTAMP + " BETWEEN date(?) AND date(?)",
+                new String[] {thresholdTime, currentTime});
+    }
+
     public void clearStatsTable() {
         String selectQuery = "DELETE FROM " + BraveStatsTable.TABLE_NAME;
         SQLiteDatabase db = this.getWritableDatabase();
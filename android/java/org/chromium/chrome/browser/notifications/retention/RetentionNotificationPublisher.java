@@ -15,13 +15,12 @@ import android.net.Uri;
 
 import org.chromium.base.ApplicationStatus;
 import org.chromium.base.Log;
-import org.chromium.base.ThreadUtils;
-import org.chromium.base.task.AsyncTask;
 import org.chromium.chrome.browser.app.BraveActivity;
 import org.chromium.chrome.browser.BraveAdsNativeHelper;
 import org.chromium.chrome.browser.BraveFeatureList;
 import org.chromium.chrome.browser.brave_stats.BraveStatsUtil;
 import org.chromium.chrome.browser.flags.ChromeFeatureList;
+import org.chromium.chrome.browser.local_database.BraveDbRepository;
 import org.chromium.chrome.browser.notifications.BraveSetDefaultBrowserNotificationService;
 import org.chromium.chrome.browser.ntp.NewTabPage;
 import org.chromium.chrome.browser.onboarding.OnboardingPrefManager;
@@ -110,37 +109,27 @@ public class RetentionNotificationPublisher extends BroadcastReceiver {
                 intent.getStringExtra(RetentionNotificationUtil.NOTIFICATION_TYPE);
         final RetentionNotification retentionNotification =
                 RetentionNotificationUtil.getNotificationObject(notificationType);
-        new AsyncTask<Void>() {
-            String notificationText = "";
-            @Override
-            protected Void doInBackground() {
-                notificationText =
-                        RetentionNotificationUtil.getNotificationText(context, notificationType);
-                return null;
-            }
-
-            @Override
-            protected void onPostExecute(Void result) {
-                assert ThreadUtils.runningOnUiThread();
-                if (isCancelled()) return;
-                NotificationManager notificationManager =
-                        (NotificationManager) context.getSystemService(
-                                Context.NOTIFICATION_SERVICE);
-                Log.e("NTP", "Notification : " + notificationType);
-                Notification notification = RetentionNotificationUtil.getNotification(
-                        context, notificationType, notificationText);
-                if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
-                    int importance = NotificationManager.IMPORTANCE_HIGH;
-                    NotificationChannel notificationChannel =
-                            new NotificationChannel(retentionNotification.getChannelId(),
-                                    NOTIFICATION_CHANNEL_NAME, importance);
+        BraveDbRepository.getInstance().read(helper
+                -> RetentionNotificationUtil.getNotificationText(
+                        context, notificationType, helper),
+                notificationText -> {
+                    NotificationManager notificationManager =
+                            (NotificationManager) context.getSystemService(
+                                    Context.NOTIFICATION_SERVICE);
+                    Log.e("NTP", "Notification : " + notificationType);
+                    Notification notification = RetentionNotificationUtil.getNotification(
+                            context, notificationType, notificationText);
+                    if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
+                        int importance = NotificationManager.IMPORTANCE_HIGH;
+                        NotificationChannel notificationChannel =
+                                new NotificationChannel(retentionNotification.getChannelId(),
+                                        NOTIFICATION_CHANNEL_NAME, importance);
+                        assert notificationManager != null;
+                        notificationManager.createNotificationChannel(notificationChannel);
+                    }
                     assert notificationManager != null;
-                    notificationManager.createNotificationChannel(notificationChannel);
-                }
-                assert notificationManager != null;
-                notificationManager.notify(retentionNotification.getNotificationId(), notification);
-            }
-        }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                    notificationManager.notify(retentionNotification.getNotificationId(), notification);
+                });
     }
 
     public static void backgroundNotificationAction(Context context, Intent intent) {
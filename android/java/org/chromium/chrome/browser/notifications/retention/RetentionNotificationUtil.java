@@ -18,6 +18,7 @@ import org.chromium.base.ContextUtils;
 import org.chromium.base.Log;
 import org.chromium.chrome.R;
 import org.chromium.chrome.browser.brave_stats.BraveStatsUtil;
+import org.chromium.chrome.browser.local_database.BraveDbRepository;
 import org.chromium.chrome.browser.local_database.DatabaseHelper;
 import org.chromium.chrome.browser.notifications.BraveOnboardingNotification;
 import org.chromium.chrome.browser.notifications.BraveSetDefaultBrowserNotificationService;
@@ -94,12 +95,15 @@ public class RetentionNotificationUtil {
         return builder.build();
     }
 
-    public static String getNotificationText(Context context, String notificationType) {
-        DatabaseHelper mDatabaseHelper = DatabaseHelper.getInstance();
+    /**
+     * Reads stats from brave_db, so it has to be run through {@link BraveDbRepository}.
+     */
+    public static String getNotificationText(
+            Context context, String notificationType, DatabaseHelper databaseHelper) {
         switch (notificationType) {
         case HOUR_3:
             if (OnboardingPrefManager.getInstance().isBraveStatsEnabled()) {
-                long adsTrackersCount = mDatabaseHelper.getAllStats().size();
+                long adsTrackersCount = databaseHelper.getStatsCount();
                 if (adsTrackersCount >= 5) {
                     return String.format(context.getResources().getString(R.string.notification_hour_3_text_1), adsTrackersCount);
                 } else {
@@ -112,17 +116,15 @@ public class RetentionNotificationUtil {
             if (OnboardingPrefManager.getInstance().isBraveStatsEnabled()) {
                 Pair<String, String> dataSavedPair =
                         BraveStatsUtil.getBraveStatsStringFormNumberPair(
-                                mDatabaseHelper.getTotalSavedBandwidth(), true);
+                                databaseHelper.getTotalSavedBandwidth(), true);
                 return String.format(context.getResources().getString(R.string.notification_hour_24_text_1), dataSavedPair.first, dataSavedPair.second);
             } else {
                 return context.getResources().getString(R.string.notification_hour_24_text_2);
             }
         case EVERY_SUNDAY:
-            long adsTrackersCountWeekly =
-                    mDatabaseHelper
-                            .getAllStatsWithDate(BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", -7),
-                                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0))
-                            .size();
+            long adsTrackersCountWeekly = databaseHelper.getStatsCountWithDate(
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", -7),
+                    BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
             Log.e("NTP", "Weekly count : " + adsTrackersCountWeekly);
             return String.format(context.getResources().getString(R.string.notification_weekly_stats), adsTrackersCountWeekly);
         case DAY_6:
@@ -59,4 +59,12 @@ public class BraveNewTabPage extends NewTabPage {
                 null, null, isInNightMode, this, mNewTabPageManager.getNavigationDelegate(),
                 profile, false, bottomSheetController);
     }
+
+    @Override
+    public void destroy() {
+        if (mNewTabPageLayout instanceof BraveNewTabPageLayout) {
+            ((BraveNewTabPageLayout) mNewTabPageLayout).recycleTopSiteTiles();
+        }
+        super.destroy();
+    }
 }
@@ -38,6 +38,7 @@ import com.airbnb.lottie.LottieAnimationView;
 import org.chromium.base.ThreadUtils;
 import org.chromium.base.ContextUtils;
 import org.chromium.base.Log;
+import org.chromium.chrome.browser.util.LottieCompositionCache;
 import org.chromium.chrome.browser.util.PackageUtils;
 import org.chromium.base.TraceEvent;
 import org.chromium.base.supplier.Supplier;
@@ -49,7 +50,7 @@ import org.chromium.chrome.browser.app.BraveActivity;
 import org.chromium.chrome.browser.compositor.layouts.OverviewModeBehavior;
 import org.chromium.chrome.browser.explore_sites.ExploreSitesBridge;
 import org.chromium.chrome.browser.lifecycle.ActivityLifecycleDispatcher;
-import org.chromium.chrome.browser.local_database.DatabaseHelper;
+import org.chromium.chrome.browser.local_database.BraveDbRepository;
 import org.chromium.chrome.browser.local_database.TopSiteTable;
 import org.chromium.chrome.browser.native_page.ContextMenuManager;
 import org.chromium.chrome.browser.night_mode.GlobalNightModeStateProviderHolder;
@@ -62,6 +63,7 @@ import org.chromium.chrome.browser.ntp_background_images.model.SponsoredTab;
 import org.chromium.chrome.browser.ntp_background_images.model.TopSite;
 import org.chromium.chrome.browser.ntp_background_images.model.Wallpaper;
 import org.chromium.chrome.browser.ntp_background_images.util.FetchWallpaperWorkerTask;
+import org.chromium.chrome.browser.ntp_background_images.util.NTPImagePreloader;
 import org.chromium.chrome.browser.ntp_background_images.util.NTPUtil;
 import org.chromium.chrome.browser.ntp_background_images.util.NewTabPageListener;
 import org.chromium.chrome.browser.ntp_background_images.util.SponsoredImageUtil;
@@ -69,7 +71,6 @@ import org.chromium.chrome.browser.offlinepages.DownloadUiActionFlags;
 import org.chromium.chrome.browser.offlinepages.OfflinePageBridge;
 import org.chromium.chrome.browser.offlinepages.RequestCoordinatorBridge;
 import org.chromium.chrome.browser.preferences.BravePref;
-import org.chromium.chrome.browser.preferences.BravePrefServiceBridge;
 import org.chromium.components.user_prefs.UserPrefs;
 import org.chromium.chrome.browser.profiles.Profile;
 import org.chromium.chrome.browser.suggestions.tile.SiteSection;
@@ -82,13 +83,17 @@ import org.chromium.chrome.browser.tab.TabObserver;
 import org.chromium.chrome.browser.tabmodel.TabModel;
 import org.chromium.components.browser_ui.widget.displaystyle.UiConfig;
 import org.chromium.chrome.browser.onboarding.OnboardingPrefManager;
+import org.chromium.chrome.browser.brave_stats.BraveStatsAggregator;
 import org.chromium.chrome.browser.brave_stats.BraveStatsUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class BraveNewTabPageLayout extends NewTabPageLayout {
     private static final String TAG = "BraveNewTabPageView";
 
+    public static final String BADGE_ANIMATION = "onboarding_ads.json";
+
     private static final String PREF_TRACKERS_BLOCKED_COUNT = "trackers_blocked_count";
     private static final String PREF_ADS_BLOCKED_COUNT = "ads_blocked_count";
     private static final String PREF_HTTPS_UPGRADES_COUNT = "https_upgrades_count";
@@ -113,20 +118,20 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
     private boolean isFromBottomSheet;
     private NTPBackgroundImagesBridge mNTPBackgroundImagesBridge;
     private ViewGroup mainLayout;
-    private DatabaseHelper mDatabaseHelper;
+    private final BraveDbRepository.RequestGroup mDbRequests = new BraveDbRepository.RequestGroup();
 
     private ViewGroup mSiteSectionView;
     private LottieAnimationView mBadgeAnimationView;
 
     private Tab mTab;
     private Activity mActivity;
+    private final List<View> mTopSiteTiles = new ArrayList<>();
 
     public BraveNewTabPageLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
         mProfile = Profile.getLastUsedRegularProfile();
         mNTPBackgroundImagesBridge = NTPBackgroundImagesBridge.getInstance(mProfile);
         mNTPBackgroundImagesBridge.setNewTabPageListener(newTabPageListener);
-        mDatabaseHelper = DatabaseHelper.getInstance();
     }
 
     @Override
@@ -166,6 +171,10 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
         });
 
         mBadgeAnimationView = (LottieAnimationView) findViewById(R.id.badge_image);
+        // The badge is hidden once it was tapped, its animation is only loaded while it shows.
+        if (OnboardingPrefManager.getInstance().shouldShowBadgeAnimation()) {
+            LottieCompositionCache.setAnimation(mBadgeAnimationView, BADGE_ANIMATION);
+        }
 
         mBraveStatsView.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -243,6 +252,7 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
 
     @Override
     protected void onDetachedFromWindow() {
+        mDbRequests.cancelAll();
         if (mWorkerTask != null && mWorkerTask.getStatus() == AsyncTask.Status.RUNNING) {
             mWorkerTask.cancel(true);
             mWorkerTask = null;
@@ -310,9 +320,9 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
      */
     private void updateBraveStats() {
         TraceEvent.begin(TAG + ".updateBraveStats()");
-        long trackersBlockedCount = BravePrefServiceBridge.getInstance().getTrackersBlockedCount(mProfile);
-        long adsBlockedCount = BravePrefServiceBridge.getInstance().getAdsBlockedCount(mProfile);
-        long dataSaved = BravePrefServiceBridge.getInstance().getDataSaved(mProfile);
+        long trackersBlockedCount = BraveStatsAggregator.getTrackersBlockedCount();
+        long adsBlockedCount = BraveStatsAggregator.getAdsBlockedCount();
+        long dataSaved = BraveStatsAggregator.getDataSaved();
         long estimatedMillisecondsSaved = (trackersBlockedCount + adsBlockedCount) * MILLISECONDS_PER_ITEM;
 
         Pair<String, String> adsTrackersPair = BraveStatsUtil.getBraveStatsStringFormNumberPair(adsBlockedCount, false);
@@ -407,10 +417,21 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
         observer.addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
             @Override
             public void onGlobalLayout() {
-                mWorkerTask = new FetchWallpaperWorkerTask(ntpImage, bgImageView.getMeasuredWidth(), bgImageView.getMeasuredHeight(), wallpaperRetrievedCallback);
-                mWorkerTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
-
                 bgImageView.getViewTreeObserver().removeOnGlobalLayoutListener(this);
+
+                int layoutWidth = bgImageView.getMeasuredWidth();
+                int layoutHeight = bgImageView.getMeasuredHeight();
+                // Layout listeners run before the first draw, so a preloaded image is
+                // shown on the first frame.
+                Pair<Bitmap, Bitmap> preloadedWallpapers =
+                        NTPImagePreloader.take(ntpImage, layoutWidth, layoutHeight);
+                if (preloadedWallpapers != null) {
+                    FetchWallpaperWorkerTask.deliverWallpapers(
+                            ntpImage, preloadedWallpapers, wallpaperRetrievedCallback);
+                } else {
+                    mWorkerTask = new FetchWallpaperWorkerTask(ntpImage, layoutWidth, layoutHeight, wallpaperRetrievedCallback);
+                    mWorkerTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                }
             }
         });
     }
@@ -465,24 +486,12 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
 
         @Override
         public void updateTopSites(List<TopSite> topSites) {
-            new AsyncTask<Void>() {
-                @Override
-                protected Void doInBackground() {
-                    for (TopSite topSite : topSites) {
-                        mDatabaseHelper.insertTopSite(topSite);
-                    }
-                    return null;
-                }
-
-                @Override
-                protected void onPostExecute(Void result) {
-                    assert ThreadUtils.runningOnUiThread();
-                    if (isCancelled()) return;
-
-                    List<TopSiteTable> topSites = mDatabaseHelper.getAllTopSites();
-                    loadTopSites(topSites);
+            mDbRequests.add(BraveDbRepository.getInstance().write(helper -> {
+                for (TopSite topSite : topSites) {
+                    helper.insertTopSite(topSite);
                 }
-            } .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                return helper.getAllTopSites();
+            }, topSiteTables -> loadTopSites(topSiteTables)));
         }
     };
 
@@ -505,6 +514,8 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
         @Override
         public void bgWallpaperRetrieved(Bitmap bgWallpaper) {
             bgImageView.setImageBitmap(bgWallpaper);
+            NTPImagePreloader.preloadNext(mNTPBackgroundImagesBridge,
+                    bgImageView.getMeasuredWidth(), bgImageView.getMeasuredHeight());
         }
 
         @Override
@@ -530,10 +541,12 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
 
     private void loadTopSites(List<TopSiteTable> topSites) {
         LinearLayout superReferralSitesLayout = (LinearLayout) findViewById(R.id.ntp_super_referral_sites_layout);
-        LayoutInflater inflater = (LayoutInflater) mActivity.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        // Top sites are loaded again when the referral is updated, the tiles of the previous
+        // load are replaced rather than added to.
+        recycleTopSiteTiles();
 
         for (TopSiteTable topSite : topSites) {
-            final View view = inflater.inflate(R.layout.suggestions_tile_view, null);
+            final View view = acquireTopSiteTile();
 
             TextView tileViewTitleTv = view.findViewById(R.id.tile_view_title);
             tileViewTitleTv.setText(topSite.getName());
@@ -601,16 +614,42 @@ public class BraveNewTabPageLayout extends NewTabPageLayout {
                         @Override
                         public boolean onMenuItemClick(MenuItem item) {
                             NTPUtil.imageCache.remove(topSite.getDestinationUrl());
-                            mDatabaseHelper.deleteTopSite(topSite.getDestinationUrl());
+                            BraveDbRepository.getInstance().write(helper -> {
+                                helper.deleteTopSite(topSite.getDestinationUrl());
+                                return null;
+                            }, null);
                             NTPUtil.addToRemovedTopSite(topSite.getDestinationUrl());
                             superReferralSitesLayout.removeView(view);
+                            mTopSiteTiles.remove(view);
                             return true;
                         }
                     });
                 }
             });
             superReferralSitesLayout.addView(view);
+            mTopSiteTiles.add(view);
+        }
+        TopSiteTilePool.setExpectedTileCount(mTopSiteTiles.size());
+    }
+
+    private View acquireTopSiteTile() {
+        if (mActivity instanceof BraveActivity) {
+            return ((BraveActivity) mActivity).getTopSiteTilePool().acquire();
+        }
+        return LayoutInflater.from(mActivity).inflate(R.layout.suggestions_tile_view, null);
+    }
+
+    /**
+     * Gives the top site tiles back to the activity pool, for the next new tab page.
+     */
+    void recycleTopSiteTiles() {
+        if (mActivity instanceof BraveActivity) {
+            TopSiteTilePool pool = ((BraveActivity) mActivity).getTopSiteTilePool();
+            for (View tile : mTopSiteTiles) {
+                pool.release(tile);
+            }
         }
+        mTopSiteTiles.clear();
     }
 
     public void removeDefaultTopSites() {
@@ -0,0 +1,111 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.ntp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.chromium.base.ContextUtils;
+import org.chromium.base.ThreadUtils;
+import org.chromium.chrome.R;
+
+import java.util.ArrayDeque;
+
+/**
+ * Pool of the tile views of the new tab page top sites, owned by an activity.
+ *
+ * Tiles are inflated ahead of time while the UI thread is idle, as many as the last new tab page
+ * showed, one per idle pass. Tiles of destroyed new tab pages come back to the pool, so opening a
+ * new tab only has to bind the sites into ready views.
+ */
+public class TopSiteTilePool {
+    private static final String PREF_TILE_COUNT = "ntp_top_site_tile_count";
+    private static final int MAX_POOLED_TILES = 16;
+
+    private final Context mContext;
+    private final ArrayDeque<View> mTiles = new ArrayDeque<>();
+    private boolean mPreInflating;
+
+    public TopSiteTilePool(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Inflates tiles on the next idle passes of the UI thread, up to the number of tiles the last
+     * new tab page showed.
+     */
+    public void preInflate() {
+        ThreadUtils.assertOnUiThread();
+        if (mPreInflating) return;
+        int expectedCount = Math.min(getPreferences().getInt(PREF_TILE_COUNT, 0), MAX_POOLED_TILES);
+        if (mTiles.size() >= expectedCount) return;
+        mPreInflating = true;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (!mPreInflating || mTiles.size() >= expectedCount) {
+                    mPreInflating = false;
+                    return false;
+                }
+                mTiles.add(inflate());
+                return true;
+            }
+        });
+    }
+
+    /**
+     * @return a tile from the pool, or a newly inflated one if the pool is empty. Everything the
+     * new tab page sets on a tile must be set again, as it may have been used before.
+     */
+    View acquire() {
+        ThreadUtils.assertOnUiThread();
+        View tile = mTiles.poll();
+        return tile != null ? tile : inflate();
+    }
+
+    /**
+     * Gives {@code tile} back to the pool, removing it from its parent.
+     */
+    void release(View tile) {
+        ThreadUtils.assertOnUiThread();
+        ViewGroup parent = (ViewGroup) tile.getParent();
+        if (parent != null) parent.removeView(tile);
+        if (mTiles.size() >= MAX_POOLED_TILES) return;
+        tile.setOnClickListener(null);
+        tile.setOnCreateContextMenuListener(null);
+        mTiles.add(tile);
+    }
+
+    /**
+     * Stops inflating and drops the pooled tiles.
+     */
+    public void destroy() {
+        mPreInflating = false;
+        mTiles.clear();
+    }
+
+    /**
+     * Remembers how many tiles a new tab page showed, for the next {@link #preInflate}.
+     */
+    static void setExpectedTileCount(int count) {
+        SharedPreferences preferences = getPreferences();
+        if (preferences.getInt(PREF_TILE_COUNT, 0) == count) return;
+        preferences.edit().putInt(PREF_TILE_COUNT, count).apply();
+    }
+
+    private View inflate() {
+        return LayoutInflater.from(mContext).inflate(R.layout.suggestions_tile_view, null);
+    }
+
+    private static SharedPreferences getPreferences() {
+        return ContextUtils.getAppSharedPreferences();
+    }
+}
@@ -26,7 +26,6 @@ public class FetchWallpaperWorkerTask extends AsyncTask<Pair<Bitmap, Bitmap>> {
         void logoRetrieved(Wallpaper mWallpaper, Bitmap logoWallpaper);
     }
 
-    private Context mContext;
     private NTPImage mNTPImage;
     private int mLayoutWidth;
     private int mLayoutHeight;
@@ -39,19 +38,27 @@ public class FetchWallpaperWorkerTask extends AsyncTask<Pair<Bitmap, Bitmap>> {
         mLayoutWidth = layoutWidth;
         mLayoutHeight = layoutHeight;
         mCallback = callback;
-        mContext = ContextUtils.getApplicationContext();
     }
 
     @Override
     protected Pair<Bitmap, Bitmap> doInBackground() {
+        return fetchWallpapers(mNTPImage, mLayoutWidth, mLayoutHeight);
+    }
+
+    /**
+     * Decodes the background image cropped to the layout size, and the sponsored logo if any.
+     * Blocks on disk I/O, must not be called on the UI thread.
+     */
+    static Pair<Bitmap, Bitmap> fetchWallpapers(NTPImage ntpImage, int layoutWidth, int layoutHeight) {
+        Context context = ContextUtils.getApplicationContext();
         Bitmap logoBitmap = null;
-        if (mNTPImage instanceof Wallpaper) {
-            Wallpaper mWallpaper = (Wallpaper) mNTPImage;
+        if (ntpImage instanceof Wallpaper) {
+            Wallpaper mWallpaper = (Wallpaper) ntpImage;
             if (mWallpaper.getLogoPath() != null ) {
                 InputStream inputStream = null;
                 try {
                     Uri logoFileUri = Uri.parse("file://"+ mWallpaper.getLogoPath());
-                    inputStream = mContext.getContentResolver().openInputStream(logoFileUri);
+                    inputStream = context.getContentResolver().openInputStream(logoFileUri);
                     logoBitmap = BitmapFactory.decodeStream(inputStream);
                     inputStream.close();
                 } catch(IOException exc) {
@@ -66,10 +73,10 @@ public class FetchWallpaperWorkerTask extends AsyncTask<Pair<Bitmap, Bitmap>> {
                   }
                 }
             }
-        }        
+        }
 
         return new Pair<Bitmap, Bitmap>(
-            NTPUtil.getWallpaperBitmap(mNTPImage, mLayoutWidth, mLayoutHeight), 
+            NTPUtil.getWallpaperBitmap(ntpImage, layoutWidth, layoutHeight),
             logoBitmap);
     }
 
@@ -79,10 +86,18 @@ public class FetchWallpaperWorkerTask extends AsyncTask<Pair<Bitmap, Bitmap>> {
 
         if (isCancelled()) return;
 
+        deliverWallpapers(mNTPImage, wallpapers, mCallback);
+    }
+
+    /**
+     * Passes bitmaps fetched by {@link #fetchWallpapers} to {@code callback}.
+     */
+    public static void deliverWallpapers(NTPImage ntpImage, Pair<Bitmap, Bitmap> wallpapers,
+            WallpaperRetrievedCallback callback) {
         if (wallpapers.first != null && !wallpapers.first.isRecycled())
-            mCallback.bgWallpaperRetrieved(wallpapers.first);
+            callback.bgWallpaperRetrieved(wallpapers.first);
 
         if (wallpapers.second != null && !wallpapers.second.isRecycled())
-            mCallback.logoRetrieved((Wallpaper) mNTPImage, wallpapers.second);
+            callback.logoRetrieved((Wallpaper) ntpImage, wallpapers.second);
     }
 }
@@ -0,0 +1,136 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.ntp_background_images.util;
+
+import android.graphics.Bitmap;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Pair;
+
+import androidx.annotation.Nullable;
+
+import org.chromium.base.ThreadUtils;
+import org.chromium.base.task.AsyncTask;
+import org.chromium.chrome.browser.ntp_background_images.NTPBackgroundImagesBridge;
+import org.chromium.chrome.browser.ntp_background_images.model.BackgroundImage;
+import org.chromium.chrome.browser.ntp_background_images.model.NTPImage;
+import org.chromium.chrome.browser.ntp_background_images.model.Wallpaper;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * Decodes the background image of the next new tab page ahead of time, while the UI thread
+ * is idle, so the next NTP can show it on its first frame instead of decoding it after layout.
+ *
+ * The next image is the current sponsored wallpaper when there is one, otherwise the next
+ * image of the {@link SponsoredImageUtil} rotation. Only one preloaded image is kept, keyed
+ * by the image and the size it was cropped for, so a rotation or a different prediction is
+ * a miss and the NTP decodes as before. The bitmaps are soft referenced and can be dropped
+ * under memory pressure. All methods must be called on the UI thread.
+ */
+public class NTPImagePreloader {
+    private static String sKey;
+    private static SoftReference<Pair<Bitmap, Bitmap>> sWallpapers;
+    private static PreloadTask sPreloadTask;
+    private static boolean sIdleHandlerAdded;
+
+    /**
+     * Preloads the image the next NTP is expected to show, once the UI thread is idle.
+     */
+    public static void preloadNext(
+            NTPBackgroundImagesBridge ntpBackgroundImagesBridge, int layoutWidth, int layoutHeight) {
+        ThreadUtils.assertOnUiThread();
+        if (layoutWidth <= 0 || layoutHeight <= 0 || sIdleHandlerAdded) return;
+        sIdleHandlerAdded = true;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                sIdleHandlerAdded = false;
+                if (!NTPUtil.shouldEnableNTPFeature()) return false;
+                // Wallpaper lookup is a cheap native call without side effects, unlike
+                // SponsoredImageUtil.getBackgroundImage() which advances the rotation.
+                NTPImage ntpImage = ntpBackgroundImagesBridge.getCurrentWallpaper();
+                if (ntpImage == null) ntpImage = SponsoredImageUtil.peekBackgroundImage();
+                preload(ntpImage, layoutWidth, layoutHeight);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return the background and logo bitmaps of {@code ntpImage} cropped to the given size,
+     * or null if they were not preloaded. A preloaded image is handed out only once.
+     */
+    @Nullable
+    public static Pair<Bitmap, Bitmap> take(NTPImage ntpImage, int layoutWidth, int layoutHeight) {
+        ThreadUtils.assertOnUiThread();
+        String key = getKey(ntpImage, layoutWidth, layoutHeight);
+        if (key == null || !key.equals(sKey) || sWallpapers == null) return null;
+        Pair<Bitmap, Bitmap> wallpapers = sWallpapers.get();
+        sKey = null;
+        sWallpapers = null;
+        if (wallpapers == null || wallpapers.first == null || wallpapers.first.isRecycled()) {
+            return null;
+        }
+        return wallpapers;
+    }
+
+    private static void preload(NTPImage ntpImage, int layoutWidth, int layoutHeight) {
+        String key = getKey(ntpImage, layoutWidth, layoutHeight);
+        if (key == null) return;
+        if (key.equals(sKey) && sWallpapers != null && sWallpapers.get() != null) return;
+        if (sPreloadTask != null) {
+            if (key.equals(sPreloadTask.mKey)) return;
+            sPreloadTask.cancel(true);
+        }
+        sKey = null;
+        sWallpapers = null;
+        sPreloadTask = new PreloadTask(key, ntpImage, layoutWidth, layoutHeight);
+        sPreloadTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    @Nullable
+    private static String getKey(NTPImage ntpImage, int layoutWidth, int layoutHeight) {
+        String image;
+        if (ntpImage instanceof Wallpaper) {
+            Wallpaper wallpaper = (Wallpaper) ntpImage;
+            image = wallpaper.getImagePath() + "|" + wallpaper.getFocalPointX() + "|"
+                    + wallpaper.getFocalPointY() + "|" + wallpaper.getLogoPath();
+        } else if (ntpImage instanceof BackgroundImage) {
+            image = String.valueOf(((BackgroundImage) ntpImage).getImageDrawable());
+        } else {
+            return null;
+        }
+        return image + "|" + layoutWidth + "x" + layoutHeight;
+    }
+
+    private static class PreloadTask extends AsyncTask<Pair<Bitmap, Bitmap>> {
+        private final String mKey;
+        private final NTPImage mNTPImage;
+        private final int mLayoutWidth;
+        private final int mLayoutHeight;
+
+        PreloadTask(String key, NTPImage ntpImage, int layoutWidth, int layoutHeight) {
+            mKey = key;
+            mNTPImage = ntpImage;
+            mLayoutWidth = layoutWidth;
+            mLayoutHeight = layoutHeight;
+        }
+
+        @Override
+        protected Pair<Bitmap, Bitmap> doInBackground() {
+            return FetchWallpaperWorkerTask.fetchWallpapers(mNTPImage, mLayoutWidth, mLayoutHeight);
+        }
+
+        @Override
+        protected void onPostExecute(Pair<Bitmap, Bitmap> wallpapers) {
+            if (sPreloadTask == this) sPreloadTask = null;
+            if (isCancelled() || wallpapers.first == null) return;
+            sKey = mKey;
+            sWallpapers = new SoftReference<>(wallpapers);
+        }
+    }
+}
@@ -65,6 +65,15 @@ public class SponsoredImageUtil {
     	return rand.nextInt(count);
     }
 
+    /**
+     * @return the image the next {@link #getBackgroundImage()} call returns, without advancing
+     * the rotation.
+     */
+    public static BackgroundImage peekBackgroundImage() {
+        return backgroundImages.get(
+                backgroundImageIndex >= backgroundImages.size() ? 0 : backgroundImageIndex);
+    }
+
     public static BackgroundImage getBackgroundImage() {
     	if (backgroundImageIndex >= backgroundImages.size()) {
     		backgroundImageIndex = 0;
@@ -8,7 +8,6 @@
 package org.chromium.chrome.browser.onboarding.v2;
 
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Color;
@@ -22,9 +21,15 @@ import org.chromium.chrome.R;
 public class HighlightView extends FrameLayout {
 
     private static final int ALPHA_60_PERCENT = 153;
+    private static final int OVERLAY_COLOR = 0xcc1E2029;
+    private static final float INNER_RADIUS_SCALE_MULTIPLIER = 0.8f;
+    private static final float OUTER_RADIUS_SCALE_MULTIPLIER = 1.2f;
 
-    private Paint eraserPaint;
-    private Paint basicPaint;
+    // Drawing runs every frame while the highlight animates, so nothing is allocated there.
+    private final Paint eraserPaint;
+    private final Paint innerBorderPaint;
+    private final Paint outerBorderPaint;
+    private final int[] location = new int[2];
 
     private HighlightItem item;
 
@@ -33,12 +38,23 @@ public class HighlightView extends FrameLayout {
     public HighlightView(Context context, AttributeSet attrs) {
         super(context, attrs);
         PorterDuffXfermode xfermode = new PorterDuffXfermode(PorterDuff.Mode.MULTIPLY);
-        basicPaint = new Paint();
         eraserPaint = new Paint();
         eraserPaint.setColor(0xFFFFFF);
         eraserPaint.setAlpha(0);
         eraserPaint.setXfermode(xfermode);
         eraserPaint.setAntiAlias(true);
+
+        innerBorderPaint = new Paint();
+        innerBorderPaint.setStyle(Paint.Style.STROKE);
+        innerBorderPaint.setStrokeWidth(2); // set stroke width
+        innerBorderPaint.setColor(Color.WHITE); // set stroke color
+        innerBorderPaint.setAntiAlias(true);
+
+        outerBorderPaint = new Paint();
+        outerBorderPaint.setStyle(Paint.Style.STROKE);
+        outerBorderPaint.setStrokeWidth(3); // set stroke width
+        outerBorderPaint.setColor(Color.WHITE); // set stroke color
+        outerBorderPaint.setAntiAlias(true);
     }
 
     public void setHighlightItem(HighlightItem item) {
@@ -51,43 +67,30 @@ public class HighlightView extends FrameLayout {
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     protected void dispatchDraw(Canvas canvas) {
-        int[] location = new int[2];
-        getLocationOnScreen(location);
-        Bitmap overlay = Bitmap.createBitmap(getMeasuredWidth(), getMeasuredHeight(),
-                Bitmap.Config.ARGB_8888);
-        Canvas overlayCanvas = new Canvas(overlay);
-        overlayCanvas.drawColor(0xcc1E2029);
-        if (shouldShowHighlight) {
+        // The overlay and its cut-outs are drawn in an offscreen layer of the canvas, so the
+        // eraser only clears the overlay and not the content below it.
+        int saveCount = canvas.saveLayer(
+                0, 0, getWidth(), getHeight(), null, Canvas.ALL_SAVE_FLAG);
+        canvas.drawColor(OVERLAY_COLOR);
+        if (shouldShowHighlight && item != null) {
+            getLocationOnScreen(location);
             int width = item.getScreenRight() - item.getScreenLeft();
             int height = item.getScreenBottom() - item.getScreenTop();
             int cx = item.getScreenLeft() + width / 2 - location[0];
             int cy = item.getScreenTop() + height / 2 - location[1];
             float radius = width > height ? ((float) width / 2) : ((float) height / 2);
 
-            Paint innerBorderPaint = new Paint();
-            innerBorderPaint.setStyle(Paint.Style.STROKE);
-            innerBorderPaint.setStrokeWidth(2); // set stroke width
-            innerBorderPaint.setColor(Color.parseColor("#FFFFFF")); // set stroke color
-            innerBorderPaint.setAntiAlias(true);
             eraserPaint.setAlpha(0);
-            float innerRadiusScaleMultiplier = 0.8f;
-            overlayCanvas.drawCircle(cx, cy, radius * innerRadiusScaleMultiplier, eraserPaint);
-            overlayCanvas.drawCircle(cx, cy, radius * innerRadiusScaleMultiplier, innerBorderPaint);
-
-            Paint outterBorderPaint = new Paint();
-            outterBorderPaint.setStyle(Paint.Style.STROKE);
-            outterBorderPaint.setStrokeWidth(3); // set stroke width
-            outterBorderPaint.setColor(Color.parseColor("#FFFFFF")); // set stroke color
-            outterBorderPaint.setAntiAlias(true);
-            
-            eraserPaint.setAlpha(ALPHA_60_PERCENT);
-            float outerRadiusScaleMultiplier = 1.2f;
-            overlayCanvas.drawCircle(cx, cy, radius * outerRadiusScaleMultiplier, eraserPaint);
-            overlayCanvas.drawCircle(cx, cy, radius * outerRadiusScaleMultiplier, outterBorderPaint);
+            canvas.drawCircle(cx, cy, radius * INNER_RADIUS_SCALE_MULTIPLIER, eraserPaint);
+            canvas.drawCircle(cx, cy, radius * INNER_RADIUS_SCALE_MULTIPLIER, innerBorderPaint);
 
+            eraserPaint.setAlpha(ALPHA_60_PERCENT);
+            canvas.drawCircle(cx, cy, radius * OUTER_RADIUS_SCALE_MULTIPLIER, eraserPaint);
+            canvas.drawCircle(cx, cy, radius * OUTER_RADIUS_SCALE_MULTIPLIER, outerBorderPaint);
         }
-        canvas.drawBitmap(overlay, 0, 0, basicPaint);
+        canvas.restoreToCount(saveCount);
         super.dispatchDraw(canvas);
     }
-}
\ No newline at end of file
+}
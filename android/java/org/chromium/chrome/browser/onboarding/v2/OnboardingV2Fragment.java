@@ -30,6 +30,7 @@ import com.airbnb.lottie.LottieAnimationView;
 import org.chromium.base.ContextUtils;
 import org.chromium.chrome.browser.onboarding.OnboardingPrefManager;
 import org.chromium.chrome.browser.onboarding.v2.HighlightDialogFragment.HighlightDialogListener;
+import org.chromium.chrome.browser.util.LottieCompositionCache;
 
 import org.chromium.chrome.R;
 
@@ -141,7 +142,7 @@ public class OnboardingV2Fragment extends Fragment {
 		mAnimatedView = view.findViewById(R.id.onboarding_image);
 		if (mAnimations.get(mPosition) != null) {
 			mAnimatedView.setVisibility(View.VISIBLE);
-			mAnimatedView.setAnimation(mAnimations.get(mPosition));
+			LottieCompositionCache.setAnimation(mAnimatedView, mAnimations.get(mPosition));
 			mAnimatedView.setRepeatCount(ValueAnimator.INFINITE);
 		}
 
@@ -172,6 +173,15 @@ public class OnboardingV2Fragment extends Fragment {
 		}
 	}
 
+	/**
+	 * Parses the onboarding animations on a background thread, so pages show them right away.
+	 */
+	public static void preloadAnimations() {
+		for (String animation : mAnimations) {
+			if (animation != null) LottieCompositionCache.preload(animation);
+		}
+	}
+
 	public void setPosition(int position) {
 		this.mPosition = position;
 	}
@@ -8,6 +8,7 @@ package org.chromium.chrome.browser.preferences.website;
 import org.chromium.base.annotations.CalledByNative;
 import org.chromium.base.annotations.JNINamespace;
 import org.chromium.base.annotations.NativeMethods;
+import org.chromium.chrome.browser.brave_stats.BraveStatsAggregator;
 import org.chromium.chrome.browser.preferences.website.BraveShieldsContentSettingsObserver;
 import org.chromium.chrome.browser.profiles.Profile;
 
@@ -130,13 +131,15 @@ public class BraveShieldsContentSettings {
 
     @CalledByNative
     private void blockedEvent(int tabId, String block_type, String subresource) {
+        BraveStatsAggregator.recordBlocked(tabId, block_type, subresource);
         for (BraveShieldsContentSettingsObserver observer : mBraveShieldsContentSettingsObservers) {
             observer.blockEvent(tabId, block_type, subresource);
         }
     }
 
     @CalledByNative
-    private void savedBandwidth(long savings) {
+    private void savedBandwidth(long savings, boolean isOffTheRecord) {
+        BraveStatsAggregator.recordSavedBandwidth(savings, isOffTheRecord);
         for (BraveShieldsContentSettingsObserver observer : mBraveShieldsContentSettingsObservers) {
             observer.savedBandwidth(savings);
         }
@@ -0,0 +1,99 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.qrreader;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.common.images.Size;
+
+import org.chromium.base.ContextUtils;
+import org.chromium.base.Log;
+
+/**
+ * Persisted preview size, picture size and fps range that {@link CameraSource} selected for a
+ * camera, so that later starts with the same request skip the selection.
+ */
+class CameraPreviewSizeCache {
+    private static final String TAG = "CameraSizeCache";
+    private static final String PREF_PREFIX = "qr_camera_preview_size_";
+
+    static class Entry {
+        final Size mPreviewSize;
+        @Nullable
+        final Size mPictureSize;
+        final int[] mFpsRange;
+
+        Entry(Size previewSize, @Nullable Size pictureSize, int[] fpsRange) {
+            mPreviewSize = previewSize;
+            mPictureSize = pictureSize;
+            mFpsRange = fpsRange;
+        }
+    }
+
+    private CameraPreviewSizeCache() {}
+
+    /**
+     * @return the sizes selected for {@code cameraId} and this request, or null if they were
+     * selected for another request or never.
+     */
+    @Nullable
+    static Entry get(int cameraId, int requestedWidth, int requestedHeight, float requestedFps) {
+        String value = getPreferences().getString(PREF_PREFIX + cameraId, null);
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 9) {
+            return null;
+        }
+        try {
+            int[] numbers = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                numbers[i] = Integer.parseInt(parts[i]);
+            }
+            if (numbers[0] != requestedWidth || numbers[1] != requestedHeight
+                    || numbers[2] != getScaledFps(requestedFps)) {
+                return null;
+            }
+            Size pictureSize = numbers[5] > 0 ? new Size(numbers[5], numbers[6]) : null;
+            return new Entry(new Size(numbers[3], numbers[4]), pictureSize,
+                    new int[] {numbers[7], numbers[8]});
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Invalid cached camera sizes: " + value);
+            return null;
+        }
+    }
+
+    static void put(int cameraId, int requestedWidth, int requestedHeight, float requestedFps,
+            Entry entry) {
+        StringBuilder value = new StringBuilder()
+                .append(requestedWidth).append(',')
+                .append(requestedHeight).append(',')
+                .append(getScaledFps(requestedFps)).append(',')
+                .append(entry.mPreviewSize.getWidth()).append(',')
+                .append(entry.mPreviewSize.getHeight()).append(',')
+                .append(entry.mPictureSize != null ? entry.mPictureSize.getWidth() : 0).append(',')
+                .append(entry.mPictureSize != null ? entry.mPictureSize.getHeight() : 0).append(',')
+                .append(entry.mFpsRange[0]).append(',')
+                .append(entry.mFpsRange[1]);
+        getPreferences().edit().putString(PREF_PREFIX + cameraId, value.toString()).apply();
+    }
+
+    static void remove(int cameraId) {
+        getPreferences().edit().remove(PREF_PREFIX + cameraId).apply();
+    }
+
+    // Fps are compared as the integers the camera API uses.
+    private static int getScaledFps(float fps) {
+        return (int) (fps * 1000.0f);
+    }
+
+    private static SharedPreferences getPreferences() {
+        return ContextUtils.getAppSharedPreferences();
+    }
+}
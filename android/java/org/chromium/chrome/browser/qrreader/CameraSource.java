@@ -23,6 +23,9 @@ import android.graphics.SurfaceTexture;
 import android.hardware.Camera;
 import android.hardware.Camera.CameraInfo;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
 import android.os.SystemClock;
 import android.util.Log;
 import android.view.Surface;
@@ -128,7 +131,8 @@ public class CameraSource {
      */
     private int mRotation;
 
-    private Size mPreviewSize;
+    // Written on the camera thread, read by the preview layout on the UI thread.
+    private volatile Size mPreviewSize;
 
     // These values may be requested by the caller.  Due to hardware limitations, we may need to
     // select close, but not exactly the same values for these.
@@ -161,6 +165,19 @@ public class CameraSource {
     @SuppressWarnings("ArrayAsKeyOfSetOrMap")
     private Map<byte[], ByteBuffer> mBytesToByteBuffer = new HashMap<>();
 
+    /**
+     * Thread the camera is opened, stopped and released on by the asynchronous methods, so the
+     * UI thread doesn't wait for the camera.  Preview callbacks are delivered on it as well.
+     * Only accessed on the thread calling the asynchronous methods.
+     */
+    private HandlerThread mCameraThread;
+    private Handler mCameraHandler;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // Only accessed on the camera thread.
+    private StartCallback mStartCallback;
+    private boolean mFirstFrameReceived;
+
     //==============================================================================================
     // Builder
     //==============================================================================================
@@ -313,10 +330,105 @@ public class CameraSource {
         void onAutoFocusMoving(boolean start);
     }
 
+    /**
+     * Callback of {@link #startAsync}, called on the UI thread.
+     */
+    public interface StartCallback {
+        /**
+         * Called when the first preview frame was received from the camera.
+         */
+        void onFirstFrame();
+
+        /**
+         * Called when the camera could not be started.
+         */
+        void onStartFailed(Exception e);
+    }
+
     //==============================================================================================
     // Public
     //==============================================================================================
 
+    /**
+     * Opens the camera and starts the preview on the camera thread, see
+     * {@link #start(SurfaceHolder)}.  Requests made with {@link #stopAsync()} and
+     * {@link #releaseAsync()} are run after it, in order.
+     *
+     * @param surfaceHolder the surface holder to use for the preview frames
+     * @param callback      notified of the first preview frame or of the failure to start
+     */
+    @RequiresPermission("Manifest.permission.CAMERA")
+    public void startAsync(final SurfaceHolder surfaceHolder, final StartCallback callback) {
+        getCameraHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mStartCallback = callback;
+                    mFirstFrameReceived = false;
+                    start(surfaceHolder);
+                } catch (final IOException | RuntimeException e) {
+                    mStartCallback = null;
+                    // The camera may have been opened before the failure.
+                    stop();
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onStartFailed(e);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Closes the camera on the camera thread, see {@link #stop()}.
+     */
+    public void stopAsync() {
+        if (mCameraHandler == null) {
+            stop();
+            return;
+        }
+        mCameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mStartCallback = null;
+                stop();
+            }
+        });
+    }
+
+    /**
+     * Closes the camera and releases the detector on the camera thread, then ends the camera
+     * thread, see {@link #release()}.
+     */
+    public void releaseAsync() {
+        if (mCameraHandler == null) {
+            release();
+            return;
+        }
+        final HandlerThread cameraThread = mCameraThread;
+        mCameraHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mStartCallback = null;
+                release();
+                cameraThread.quit();
+            }
+        });
+        mCameraThread = null;
+        mCameraHandler = null;
+    }
+
+    private Handler getCameraHandler() {
+        if (mCameraHandler == null) {
+            mCameraThread = new HandlerThread("CameraSource");
+            mCameraThread.start();
+            mCameraHandler = new Handler(mCameraThread.getLooper());
+        }
+        return mCameraHandler;
+    }
+
     /**
      * Stops the camera and releases the resources of the camera and underlying detector.
      */
@@ -733,18 +845,52 @@ public class CameraSource {
         }
         Camera camera = Camera.open(requestedCameraId);
 
+        // Sizes selected by a previous start with the same request are used as is, unless the
+        // camera doesn't accept them anymore.
+        CameraPreviewSizeCache.Entry cachedSizes = CameraPreviewSizeCache.get(requestedCameraId,
+                mRequestedPreviewWidth, mRequestedPreviewHeight, mRequestedFps);
+        if (cachedSizes != null) {
+            try {
+                setParameters(camera, requestedCameraId, cachedSizes.mPictureSize,
+                        cachedSizes.mPreviewSize, cachedSizes.mFpsRange);
+                addPreviewBuffers(camera);
+                return camera;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Cached camera sizes are not supported anymore: " + e);
+                CameraPreviewSizeCache.remove(requestedCameraId);
+            }
+        }
+
         SizePair sizePair = selectSizePair(camera, mRequestedPreviewWidth, mRequestedPreviewHeight);
         if (sizePair == null) {
             throw new RuntimeException("Could not find suitable preview size.");
         }
-        Size pictureSize = sizePair.pictureSize();
-        mPreviewSize = sizePair.previewSize();
 
         int[] previewFpsRange = selectPreviewFpsRange(camera, mRequestedFps);
         if (previewFpsRange == null) {
             throw new RuntimeException("Could not find suitable preview frames per second range.");
         }
 
+        setParameters(camera, requestedCameraId, sizePair.pictureSize(), sizePair.previewSize(),
+                previewFpsRange);
+        CameraPreviewSizeCache.put(requestedCameraId, mRequestedPreviewWidth,
+                mRequestedPreviewHeight, mRequestedFps,
+                new CameraPreviewSizeCache.Entry(
+                        sizePair.previewSize(), sizePair.pictureSize(), previewFpsRange));
+        addPreviewBuffers(camera);
+
+        return camera;
+    }
+
+    /**
+     * Applies the sizes and the user settings to the camera parameters.
+     *
+     * @throws RuntimeException if the camera rejects the parameters
+     */
+    private void setParameters(Camera camera, int cameraId, @Nullable Size pictureSize,
+            Size previewSize, int[] previewFpsRange) {
+        mPreviewSize = previewSize;
+
         Camera.Parameters parameters = camera.getParameters();
 
         if (pictureSize != null) {
@@ -757,7 +903,7 @@ public class CameraSource {
                 previewFpsRange[Camera.Parameters.PREVIEW_FPS_MAX_INDEX]);
         parameters.setPreviewFormat(ImageFormat.NV21);
 
-        setRotation(camera, parameters, requestedCameraId);
+        setRotation(camera, parameters, cameraId);
 
         if (mFocusMode != null) {
             if (parameters.getSupportedFocusModes().contains(
@@ -784,7 +930,9 @@ public class CameraSource {
         mFlashMode = parameters.getFlashMode();
 
         camera.setParameters(parameters);
+    }
 
+    private void addPreviewBuffers(Camera camera) {
         // Four frame buffers are needed for working with the camera:
         //
         //   one for the frame that is currently being executed upon in doing detection
@@ -795,8 +943,6 @@ public class CameraSource {
         camera.addCallbackBuffer(createPreviewBuffer(mPreviewSize));
         camera.addCallbackBuffer(createPreviewBuffer(mPreviewSize));
         camera.addCallbackBuffer(createPreviewBuffer(mPreviewSize));
-
-        return camera;
     }
 
     /**
@@ -1046,6 +1192,16 @@ public class CameraSource {
         @Override
         public void onPreviewFrame(byte[] data, Camera camera) {
             mFrameProcessor.setNextFrame(data, camera);
+            if (!mFirstFrameReceived && mStartCallback != null) {
+                mFirstFrameReceived = true;
+                final StartCallback callback = mStartCallback;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFirstFrame();
+                    }
+                });
+            }
         }
     }
 
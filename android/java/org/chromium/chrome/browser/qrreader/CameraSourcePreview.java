@@ -17,18 +17,18 @@ package org.chromium.chrome.browser.qrreader;
 
 import android.content.Context;
 import android.content.res.Configuration;
+import android.graphics.Color;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
+import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.RequiresPermission;
 
 import com.google.android.gms.common.images.Size;
 
-import java.io.IOException;
-
 public class CameraSourcePreview extends ViewGroup {
     private static final String TAG = CameraSourcePreview.class.getSimpleName();
 
@@ -36,6 +36,10 @@ public class CameraSourcePreview extends ViewGroup {
 
     private Context mContext;
     private SurfaceView mSurfaceView;
+    // Covers the surface until the first preview frame, as the camera is opened asynchronously.
+    private View mPlaceholder;
+    // Callback of the last start, callbacks of previous starts are ignored.
+    private CameraSource.StartCallback mStartCallback;
     private boolean mStartRequested;
     private boolean mSurfaceAvailable;
     private CameraSource mCameraSource;
@@ -49,10 +53,14 @@ public class CameraSourcePreview extends ViewGroup {
         mSurfaceView = new SurfaceView(context);
         mSurfaceView.getHolder().addCallback(new SurfaceCallback());
         addView(mSurfaceView);
+
+        mPlaceholder = new View(context);
+        mPlaceholder.setBackgroundColor(Color.BLACK);
+        addView(mPlaceholder);
     }
 
     @RequiresPermission("Manifest.permission.CAMERA")
-    public void start(CameraSource cameraSource) throws IOException, SecurityException {
+    public void start(CameraSource cameraSource) throws SecurityException {
         if (cameraSource == null) {
             stop();
         }
@@ -67,21 +75,45 @@ public class CameraSourcePreview extends ViewGroup {
 
     public void stop() {
         if (mCameraSource != null) {
-            mCameraSource.stop();
+            mCameraSource.stopAsync();
         }
+        mStartCallback = null;
+        mPlaceholder.setVisibility(View.VISIBLE);
     }
 
     public void release() {
         if (mCameraSource != null) {
-            mCameraSource.release();
+            mCameraSource.releaseAsync();
             mCameraSource = null;
         }
+        mStartCallback = null;
+        mPlaceholder.setVisibility(View.VISIBLE);
     }
 
     @RequiresPermission("Manifest.permission.CAMERA")
-    private void startIfReady() throws IOException, SecurityException {
+    private void startIfReady() throws SecurityException {
         if (mStartRequested && mSurfaceAvailable) {
-            mCameraSource.start(mSurfaceView.getHolder());
+            mStartCallback = new CameraSource.StartCallback() {
+                @Override
+                public void onFirstFrame() {
+                    if (mStartCallback != this) {
+                        return;
+                    }
+                    mPlaceholder.setVisibility(View.GONE);
+                    // The preview size is known now.
+                    requestLayout();
+                }
+
+                @Override
+                public void onStartFailed(Exception e) {
+                    if (mStartCallback != this) {
+                        return;
+                    }
+                    mCameraExist = false;
+                    Log.e(TAG, "Could not start camera source.", e);
+                }
+            };
+            mCameraSource.startAsync(mSurfaceView.getHolder(), mStartCallback);
             mStartRequested = false;
         }
     }
@@ -98,9 +130,6 @@ public class CameraSourcePreview extends ViewGroup {
             } catch (RuntimeException e) {
                 mCameraExist = false;
                 Log.e(TAG, "Could not start camera source.", e);
-            } catch (IOException e) {
-                mCameraExist = false;
-                Log.e(TAG, "Could not start camera source.", e);
             }
         }
 
@@ -167,8 +196,6 @@ public class CameraSourcePreview extends ViewGroup {
 
         try {
             startIfReady();
-        } catch (IOException e) {
-            Log.e(TAG, "Could not start camera source.", e);
         } catch (SecurityException se) {
             Log.e(TAG, "Does not have permission to start the camera.", se);
         }
@@ -30,7 +30,6 @@ import android.content.res.Configuration;
 
 import org.chromium.chrome.R;
 
-import org.chromium.base.task.AsyncTask;
 import org.chromium.ui.base.DeviceFormFactor;
 import org.chromium.chrome.browser.util.ConfigurationUtils;
 import org.chromium.chrome.browser.rate.RateFeedbackUtils;
@@ -138,8 +137,7 @@ public class RateDialogFragment extends DialogFragment implements View.OnClickLi
                     mRateFeedbackEditText.startAnimation(shake);
                     return;
                 } else {
-                    RateFeedbackUtils.RateFeedbackWorkerTask mWorkerTask = new RateFeedbackUtils.RateFeedbackWorkerTask(mUserSelection, feedback, rateFeedbackCallback);
-                    mWorkerTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                    RateFeedbackUtils.sendRateFeedback(mUserSelection, feedback, rateFeedbackCallback);
                 }
             } else if (mIsSuccessShown) {
                 openPlaystore();
@@ -11,23 +11,11 @@ import android.os.Build;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.OutputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-
 import org.chromium.base.Log;
-import org.chromium.base.ThreadUtils;
 import org.chromium.base.ContextUtils;
-import org.chromium.base.task.AsyncTask;
 import org.chromium.chrome.browser.about_settings.AboutChromeSettings;
 import org.chromium.chrome.browser.about_settings.AboutSettingsBridge;
-import org.chromium.chrome.browser.profiles.Profile;
-import org.chromium.chrome.browser.ntp_background_images.NTPBackgroundImagesBridge;
+import org.chromium.chrome.browser.util.BraveReportQueue;
 
 public class RateFeedbackUtils {
 	private static final String TAG = "Rate_Brave";
@@ -37,49 +25,15 @@ public class RateFeedbackUtils {
 		void rateFeedbackSubmitted();
 	}
 
-	public static class RateFeedbackWorkerTask extends AsyncTask<Void> {
-		private String mUserSelection;
-		private String mUserFeedback;
-		private RateFeedbackCallback mCallback;
-
-		public RateFeedbackWorkerTask(String userSelection, String userFeedback, RateFeedbackCallback callback) {
-			mUserSelection = userSelection;
-			mUserFeedback = userFeedback;
-			mCallback = callback;
-		}
-
-		@Override
-		protected Void doInBackground() {
-			sendRateFeedback(mUserSelection, mUserFeedback);
-			return null;
-		}
-
-		@Override
-		protected void onPostExecute(Void result) {
-			assert ThreadUtils.runningOnUiThread();
-			if (isCancelled()) return;
-			mCallback.rateFeedbackSubmitted();
-		}
-	}
-
-	private static void sendRateFeedback(String userSelection, String userFeedback) {
+	/**
+	 * Queues a rate feedback report and notifies {@code callback} once it is queued.
+	 * Must be called on the UI thread.
+	 */
+	public static void sendRateFeedback(String userSelection, String userFeedback, RateFeedbackCallback callback) {
 		Context context = ContextUtils.getApplicationContext();
 		String appVersion = AboutChromeSettings.getApplicationVersion(context, AboutSettingsBridge.getApplicationVersion());
-		StringBuilder sb = new StringBuilder();
-
-		Profile mProfile = Profile.getLastUsedRegularProfile();
-		NTPBackgroundImagesBridge mNTPBackgroundImagesBridge = NTPBackgroundImagesBridge.getInstance(mProfile);
 
-		HttpURLConnection urlConnection = null;
 		try {
-			URL url = new URL(RATE_URL);
-			urlConnection = (HttpURLConnection) url.openConnection();
-			urlConnection.setDoOutput(true);
-			urlConnection.setRequestMethod("POST");
-			urlConnection.setUseCaches(false);
-			urlConnection.setRequestProperty("Content-Type", "application/json");
-			urlConnection.connect();
-
 			JSONObject jsonParam = new JSONObject();
 			jsonParam.put("selection", userSelection);
 			jsonParam.put("platform", "Android");
@@ -89,35 +43,10 @@ public class RateFeedbackUtils {
 			jsonParam.put("phone_arch", Build.CPU_ABI);
 			jsonParam.put("user_feedback", userFeedback);
 			jsonParam.put("app_version", appVersion);
-			jsonParam.put("api_key", mNTPBackgroundImagesBridge.getReferralApiKey());
-
-			OutputStream outputStream = urlConnection.getOutputStream();
-			byte[] input = jsonParam.toString().getBytes(StandardCharsets.UTF_8.name());
-			outputStream.write(input, 0, input.length);
-			outputStream.flush();
-			outputStream.close();
-
-			int HttpResult = urlConnection.getResponseCode();
-			if (HttpResult == HttpURLConnection.HTTP_OK) {
-				BufferedReader br = new BufferedReader(new InputStreamReader(
-				        urlConnection.getInputStream(), StandardCharsets.UTF_8.name()));
-				String line = null;
-				while ((line = br.readLine()) != null) {
-					sb.append(line + "\n");
-				}
-				br.close();
-			} else {
-				Log.e(TAG, urlConnection.getResponseMessage());
-			}
-		} catch (MalformedURLException e) {
-			Log.e(TAG, e.getMessage());
-		} catch (IOException e) {
-			Log.e(TAG, e.getMessage());
+			BraveReportQueue.getInstance().enqueue(RATE_URL, jsonParam);
 		} catch (JSONException e) {
 			Log.e(TAG, e.getMessage());
-		} finally {
-			if (urlConnection != null)
-				urlConnection.disconnect();
 		}
+		callback.rateFeedbackSubmitted();
 	}
-}
\ No newline at end of file
+}
@@ -11,22 +11,40 @@ import org.chromium.base.ContextUtils;
 import org.chromium.chrome.browser.BraveHelper;
 import org.chromium.chrome.browser.search_engines.TemplateUrlServiceFactory;
 import org.chromium.chrome.browser.tabmodel.TabModelSelector;
+import org.chromium.chrome.browser.util.BraveTraceRecorder;
 import org.chromium.components.search_engines.TemplateUrlService;
 import org.chromium.components.search_engines.TemplateUrl;
 
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Keeps the standard and private default search engines (DSE) and switches the active one.
+ *
+ * The DSE choices are read from prefs once and kept in memory, and TemplateUrls are looked up
+ * in a short name index that is rebuilt only after TemplateUrlService changes. Switching the
+ * active DSE on resume or on a tab model switch therefore doesn't list all TemplateUrls through
+ * JNI. Must be used on the UI thread.
+ */
 public class BraveSearchEngineUtils {
+    // Short name to TemplateUrl, null until built or after TemplateUrlService changed.
+    private static Map<String, TemplateUrl> sTemplateUrlIndex;
+    private static boolean sObservingTemplateUrlService;
+    // Keyword of the DSE currently set in TemplateUrlService.
+    private static String sActiveKeyword;
+    private static boolean sDSEPrefsLoaded;
+    private static String sStandardDSEShortName;
+    private static String sPrivateDSEShortName;
+
     static public String getDSEShortName(boolean isPrivate) {
-        String defaultSearchEngineName = null;
+        loadDSEPrefs();
+        String shortName = isPrivate ? sPrivateDSEShortName : sStandardDSEShortName;
+        if (shortName != null) return shortName;
+
         TemplateUrl dseTemplateUrl =
                 TemplateUrlServiceFactory.get().getDefaultSearchEngineTemplateUrl();
-        if (dseTemplateUrl != null)
-            defaultSearchEngineName = dseTemplateUrl.getShortName();
-
-        return ContextUtils.getAppSharedPreferences().getString(
-            isPrivate ? BraveHelper.PRIVATE_DSE_SHORTNAME :
-                BraveHelper.STANDARD_DSE_SHORTNAME, defaultSearchEngineName);
+        return dseTemplateUrl != null ? dseTemplateUrl.getShortName() : null;
     }
 
     static public void updateActiveDSE(boolean isPrivate) {
@@ -35,10 +53,22 @@ public class BraveSearchEngineUtils {
             return;
         }
         String keyword = templateUrl.getKeyword();
+        // Setting the DSE writes prefs and notifies all TemplateUrlService observers, skip it
+        // when the DSE doesn't change.
+        if (keyword.equals(sActiveKeyword)) {
+            return;
+        }
         TemplateUrlServiceFactory.get().setSearchEngine(keyword);
+        sActiveKeyword = keyword;
     }
 
     static public void setDSEPrefs(TemplateUrl templateUrl, boolean isPrivate) {
+        loadDSEPrefs();
+        if (isPrivate) {
+            sPrivateDSEShortName = templateUrl.getShortName();
+        } else {
+            sStandardDSEShortName = templateUrl.getShortName();
+        }
         SharedPreferences.Editor sharedPreferencesEditor =
             ContextUtils.getAppSharedPreferences().edit();
         sharedPreferencesEditor.putString(
@@ -47,6 +77,15 @@ public class BraveSearchEngineUtils {
         sharedPreferencesEditor.apply();
     }
 
+    static private void loadDSEPrefs() {
+        if (sDSEPrefsLoaded) return;
+        SharedPreferences sharedPreferences = ContextUtils.getAppSharedPreferences();
+        sStandardDSEShortName =
+                sharedPreferences.getString(BraveHelper.STANDARD_DSE_SHORTNAME, null);
+        sPrivateDSEShortName = sharedPreferences.getString(BraveHelper.PRIVATE_DSE_SHORTNAME, null);
+        sDSEPrefsLoaded = true;
+    }
+
     static public void initializeBraveSearchEngineStates(TabModelSelector tabModelSelector) {
         tabModelSelector.addObserver(new SearchEngineTabModelSelectorObserver(tabModelSelector));
 
@@ -84,27 +123,58 @@ public class BraveSearchEngineUtils {
             sharedPreferencesEditor.putString(BraveHelper.PRIVATE_DSE_SHORTNAME,
                 templateUrl.getShortName());
             sharedPreferencesEditor.apply();
+            sStandardDSEShortName = templateUrl.getShortName();
+            sPrivateDSEShortName = templateUrl.getShortName();
+            sDSEPrefsLoaded = true;
         }
     }
 
     static private void doInitializeBraveSearchEngineStates() {
         assert TemplateUrlServiceFactory.get().isLoaded();
 
+        long start = BraveTraceRecorder.begin();
         initializeDSEPrefs();
         // Initially set standard dse as an active DSE.
         updateActiveDSE(false);
+        BraveTraceRecorder.end("BraveSearchEngineUtils.initializeBraveSearchEngineStates", start);
     }
 
     static public TemplateUrl getTemplateUrlByShortName(String name) {
-        List<TemplateUrl> templateUrls = TemplateUrlServiceFactory.get().getTemplateUrls();
-        for (int index = 0; index < templateUrls.size(); ++index) {
-          TemplateUrl templateUrl = templateUrls.get(index);
-          if (templateUrl.getShortName().equals(name)) {
-              return templateUrl;
-          }
-        }
+        TemplateUrl templateUrl = getTemplateUrlIndex().get(name);
         // This should not happen
-        assert false;
-        return null;
+        assert templateUrl != null;
+        return templateUrl;
+    }
+
+    static private Map<String, TemplateUrl> getTemplateUrlIndex() {
+        if (sTemplateUrlIndex != null) return sTemplateUrlIndex;
+
+        TemplateUrlService templateUrlService = TemplateUrlServiceFactory.get();
+        if (!sObservingTemplateUrlService) {
+            // TemplateUrls are owned by the service and may go away when it changes, so the
+            // index is dropped and rebuilt on the next lookup.
+            templateUrlService.addObserver(new TemplateUrlService.TemplateUrlServiceObserver() {
+                @Override
+                public void onTemplateURLServiceChanged() {
+                    sTemplateUrlIndex = null;
+                    TemplateUrl dseTemplateUrl =
+                            TemplateUrlServiceFactory.get().getDefaultSearchEngineTemplateUrl();
+                    sActiveKeyword = dseTemplateUrl != null ? dseTemplateUrl.getKeyword() : null;
+                }
+            });
+            sObservingTemplateUrlService = true;
+        }
+        Map<String, TemplateUrl> index = new HashMap<>();
+        List<TemplateUrl> templateUrls = templateUrlService.getTemplateUrls();
+        for (int i = 0; i < templateUrls.size(); ++i) {
+            TemplateUrl templateUrl = templateUrls.get(i);
+            // Keep the first match, like the linear lookup did.
+            if (!index.containsKey(templateUrl.getShortName())) {
+                index.put(templateUrl.getShortName(), templateUrl);
+            }
+        }
+        // Only cache a loaded service, before that the list is incomplete.
+        if (templateUrlService.isLoaded()) sTemplateUrlIndex = index;
+        return index;
     }
 }
@@ -13,8 +13,6 @@ import androidx.preference.Preference;
 import androidx.preference.Preference.OnPreferenceChangeListener;
 
 import org.chromium.base.ContextUtils;
-import org.chromium.base.task.AsyncTask;
-import org.chromium.base.ThreadUtils;
 import org.chromium.chrome.R;
 import org.chromium.chrome.browser.BraveRelaunchUtils;
 import org.chromium.chrome.browser.ntp_background_images.NTPBackgroundImagesBridge;
@@ -23,7 +21,7 @@ import org.chromium.chrome.browser.settings.BravePreferenceFragment;
 import org.chromium.components.browser_ui.settings.ChromeSwitchPreference;
 import org.chromium.components.browser_ui.settings.SettingsUtils;
 import org.chromium.chrome.browser.onboarding.OnboardingPrefManager;
-import org.chromium.chrome.browser.local_database.DatabaseHelper;
+import org.chromium.chrome.browser.local_database.BraveDbRepository;
 
 /**
  * Fragment to keep track of all the display related preferences.
@@ -39,8 +37,6 @@ public class BraveStatsPreferences extends BravePreferenceFragment
     private ChromeSwitchPreference braveStatsPref;
     private ChromeSwitchPreference braveStatsNotificationPref;
 
-    private DatabaseHelper mDatabaseHelper = DatabaseHelper.getInstance();
-
     private SharedPreferences sharedPreferences = ContextUtils.getAppSharedPreferences();
     private SharedPreferences.Editor sharedPreferencesEditor = sharedPreferences.edit();
 
@@ -56,26 +52,13 @@ public class BraveStatsPreferences extends BravePreferenceFragment
         findPreference(PREF_CLEAR_BRAVE_STATS).setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
             @Override
             public boolean onPreferenceClick(Preference preference) {
-                new AsyncTask<Void>() {
-                    @Override
-                    protected Void doInBackground() {
-                        try {
-                            mDatabaseHelper.clearStatsTable();
-                            mDatabaseHelper.clearSavedBandwidthTable();
-                        } catch (Exception e) {
-                            // Do nothing if url is invalid.
-                            // Just return w/o showing shields popup.
-                            return null;
-                        }
-                        return null;
-                    }
-                    @Override
-                    protected void onPostExecute(Void result) {
-                        assert ThreadUtils.runningOnUiThread();
-                        if (isCancelled()) return;
-                        Toast.makeText(ContextUtils.getApplicationContext(), ContextUtils.getApplicationContext().getResources().getString(R.string.data_has_been_cleared), Toast.LENGTH_SHORT).show();
-                    }
-                } .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                BraveDbRepository.getInstance().write(helper -> {
+                    helper.clearStatsTable();
+                    helper.clearSavedBandwidthTable();
+                    return null;
+                }, result -> {
+                    Toast.makeText(ContextUtils.getApplicationContext(), ContextUtils.getApplicationContext().getResources().getString(R.string.data_has_been_cleared), Toast.LENGTH_SHORT).show();
+                });
                 return true;
             }
         });
@@ -16,6 +16,7 @@ import android.content.ContextWrapper;
 import android.content.DialogInterface;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
+import android.content.res.ColorStateList;
 import android.content.res.Configuration;
 import android.graphics.Bitmap;
 import android.graphics.Color;
@@ -87,11 +88,11 @@ import org.chromium.content_public.browser.UiThreadTaskTraits;
 import org.chromium.ui.KeyboardVisibilityDelegate;
 import org.chromium.ui.base.DeviceFormFactor;
 
-import java.io.IOException;
 import java.lang.Runnable;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Settings fragment that allows to control Sync functionality.
@@ -156,12 +157,30 @@ public class BraveSyncScreensPreference extends BravePreferenceFragment
     private ScrollView mScrollViewEnterCodeWords;
     private ScrollView mScrollViewSyncDone;
     private LayoutInflater mInflater;
+    // Rows of the devices table by device guid, followed by a single bottom separator.
+    private final Map<String, DeviceRow> mDeviceRows = new HashMap<>();
+    private View mDevicesBottomSeparator;
+    private boolean mDeviceRowsValid;
     private ImageView mQRCodeImage;
     private LinearLayout mLayoutSyncStartChain;
     private EditText mCodeWords;
     private FrameLayout mLayoutMobile;
     private FrameLayout mLayoutLaptop;
 
+    private static class DeviceRow {
+        final View mSeparator;
+        final View mItem;
+        final TextView mText;
+        final ColorStateList mDefaultTextColors;
+
+        DeviceRow(View separator, View item) {
+            mSeparator = separator;
+            mItem = item;
+            mText = (TextView) item.findViewById(R.id.brave_sync_device_text);
+            mDefaultTextColors = null != mText ? mText.getTextColors() : null;
+        }
+    }
+
     BraveSyncWorker getBraveSyncWorker() {
         Object object = BraveSyncReflectionUtils.getSyncWorker();
         if (object == null) {
@@ -171,8 +190,8 @@ public class BraveSyncScreensPreference extends BravePreferenceFragment
     }
 
     @Override
-    public void deviceInfoChanged() {
-        onDevicesAvailable();
+    public void deviceInfoChanged(BraveSyncDevices.DeviceListDelta delta) {
+        applyDeviceListDelta(delta);
     }
     boolean deviceInfoObserverSet = false;
 
@@ -274,53 +293,16 @@ public class BraveSyncScreensPreference extends BravePreferenceFragment
                         Log.w(TAG, "No need to load devices for other pages");
                         return;
                     }
-                    ArrayList<BraveSyncDevices.SyncDeviceInfo> deviceInfos =
-                            BraveSyncDevices.get().GetSyncDeviceList();
+                    List<BraveSyncDevices.SyncDeviceInfo> deviceInfos =
+                            BraveSyncDevices.get().getSyncDevices();
                     Log.v(TAG, "Got " + deviceInfos.size() + " devices");
                     ViewGroup insertPoint =
                             (ViewGroup) getView().findViewById(R.id.brave_sync_devices);
-                    insertPoint.removeAllViews();
-                    int index = 0;
-                    for (BraveSyncDevices.SyncDeviceInfo device : deviceInfos) {
-                        View separator = (View) mInflater.inflate(R.layout.menu_separator, null);
-                        View listItemView =
-                                (View) mInflater.inflate(R.layout.brave_sync_device, null);
-                        if (null != listItemView && null != separator && null != insertPoint) {
-                            TextView textView = (TextView) listItemView.findViewById(
-                                    R.id.brave_sync_device_text);
-                            if (null != textView) {
-                                textView.setText(device.mName);
-                            }
-
-                            if (device.mIsCurrentDevice) {
-                                mDeviceName = device.mName;
-                                // Current device is deleted by button on the bottom
-                                if (null != textView) {
-                                    // Highlight curret device
-                                    textView.setTextColor(ApiCompatibilityUtils.getColor(
-                                            getActivity().getResources(),
-                                            R.color.brave_theme_color));
-                                    String currentDevice = device.mName + " "
-                                            + getResources().getString(
-                                                    R.string.brave_sync_this_device_text);
-                                    textView.setText(currentDevice);
-                                }
-                                // mRemoveDeviceButton is always visible, we can leave the chain
-                                // in any time with sync v2 (except we are now doing reset)
-                            }
-                            insertPoint.addView(separator, index++);
-                            insertPoint.addView(listItemView, index++);
-                        }
-                    }
-
-                    if (index > 0) {
-                        mBraveSyncTextDevicesTitle.setText(
-                                getResources().getString(R.string.brave_sync_devices_title));
-                        View separator = (View) mInflater.inflate(R.layout.menu_separator, null);
-                        if (null != insertPoint && null != separator) {
-                            insertPoint.addView(separator, index++);
-                        }
+                    clearDeviceRows(insertPoint);
+                    for (int i = 0; i < deviceInfos.size(); i++) {
+                        addDeviceRow(insertPoint, deviceInfos.get(i), i);
                     }
+                    mDeviceRowsValid = true;
                 }
             });
         } catch (Exception exc) {
@@ -328,6 +310,102 @@ public class BraveSyncScreensPreference extends BravePreferenceFragment
         }
     }
 
+    /**
+     * Updates only the rows of the devices in {@code delta}. The whole table is built again
+     * the next time the page is shown if it was not up to date.
+     */
+    private void applyDeviceListDelta(BraveSyncDevices.DeviceListDelta delta) {
+        if (null == getActivity() || null == getView()) {
+            return;
+        }
+        if (!mDeviceRowsValid || View.VISIBLE != mScrollViewSyncDone.getVisibility()) {
+            mDeviceRowsValid = false;
+            return;
+        }
+        ViewGroup insertPoint = (ViewGroup) getView().findViewById(R.id.brave_sync_devices);
+        Log.v(TAG, "Devices added: " + delta.mAdded.size() + ", removed: " + delta.mRemoved.size()
+                        + ", changed: " + delta.mChanged.size());
+        for (BraveSyncDevices.SyncDeviceInfo device : delta.mRemoved) {
+            DeviceRow row = mDeviceRows.remove(device.mGuid);
+            if (null != row) {
+                insertPoint.removeView(row.mSeparator);
+                insertPoint.removeView(row.mItem);
+            }
+        }
+        if (mDeviceRows.isEmpty() && null != mDevicesBottomSeparator) {
+            insertPoint.removeView(mDevicesBottomSeparator);
+            mDevicesBottomSeparator = null;
+        }
+        for (BraveSyncDevices.SyncDeviceInfo device : delta.mChanged) {
+            DeviceRow row = mDeviceRows.get(device.mGuid);
+            if (null != row) {
+                bindDeviceRow(row, device);
+            }
+        }
+        // Rows before each added one, kept or added, are in place by then, so the rows end up
+        // in the order of the new list.
+        for (int i = 0; i < delta.mAdded.size(); i++) {
+            addDeviceRow(insertPoint, delta.mAdded.get(i), delta.mAddedPositions.get(i));
+        }
+    }
+
+    private void clearDeviceRows(ViewGroup insertPoint) {
+        if (null != insertPoint) {
+            insertPoint.removeAllViews();
+        }
+        mDeviceRows.clear();
+        mDevicesBottomSeparator = null;
+        mDeviceRowsValid = false;
+    }
+
+    /**
+     * Adds the row of {@code device} as the row at {@code position} of the table.
+     */
+    private void addDeviceRow(
+            ViewGroup insertPoint, BraveSyncDevices.SyncDeviceInfo device, int position) {
+        View separator = (View) mInflater.inflate(R.layout.menu_separator, null);
+        View listItemView = (View) mInflater.inflate(R.layout.brave_sync_device, null);
+        if (null == listItemView || null == separator || null == insertPoint) {
+            return;
+        }
+        DeviceRow row = new DeviceRow(separator, listItemView);
+        bindDeviceRow(row, device);
+        mDeviceRows.put(device.mGuid, row);
+
+        if (null == mDevicesBottomSeparator) {
+            mBraveSyncTextDevicesTitle.setText(
+                    getResources().getString(R.string.brave_sync_devices_title));
+            mDevicesBottomSeparator = (View) mInflater.inflate(R.layout.menu_separator, null);
+            insertPoint.addView(mDevicesBottomSeparator);
+        }
+        // Each row is a separator and the item, the bottom separator comes after all of them.
+        int index = Math.min(
+                position * 2, insertPoint.indexOfChild(mDevicesBottomSeparator));
+        insertPoint.addView(separator, index++);
+        insertPoint.addView(listItemView, index);
+    }
+
+    private void bindDeviceRow(DeviceRow row, BraveSyncDevices.SyncDeviceInfo device) {
+        if (null == row.mText) {
+            return;
+        }
+        if (device.mIsCurrentDevice) {
+            mDeviceName = device.mName;
+            // Current device is deleted by button on the bottom
+            // Highlight curret device
+            row.mText.setTextColor(ApiCompatibilityUtils.getColor(
+                    getActivity().getResources(), R.color.brave_theme_color));
+            String currentDevice = device.mName + " "
+                    + getResources().getString(R.string.brave_sync_this_device_text);
+            row.mText.setText(currentDevice);
+            // mRemoveDeviceButton is always visible, we can leave the chain
+            // in any time with sync v2 (except we are now doing reset)
+        } else {
+            row.mText.setTextColor(row.mDefaultTextColors);
+            row.mText.setText(device.mName);
+        }
+    }
+
     @Override
     public void onActivityCreated(Bundle savedInstanceState) {
         getActivity().setTitle(R.string.sign_in_sync);
@@ -835,13 +913,9 @@ public class BraveSyncScreensPreference extends BravePreferenceFragment
 
                 return;
             }
-            try {
-                mCameraSourcePreview.start(mCameraSource);
-            } catch (IOException e) {
-                Log.e(TAG, "Unable to start camera source.", e);
-                mCameraSource.release();
-                mCameraSource = null;
-            }
+            // Failures to open the camera are reported through mCameraExist, as the camera is
+            // opened asynchronously.
+            mCameraSourcePreview.start(mCameraSource);
         }
     }
 
@@ -997,10 +1071,7 @@ public class BraveSyncScreensPreference extends BravePreferenceFragment
         PostTask.postDelayedTask(
                 UiThreadTaskTraits.USER_VISIBLE, () -> leaveSyncChainComplete(), 5 * 1000);
 
-        ViewGroup devicesUiGroup = (ViewGroup) getView().findViewById(R.id.brave_sync_devices);
-        if (devicesUiGroup != null) {
-            devicesUiGroup.removeAllViews();
-        }
+        clearDeviceRows((ViewGroup) getView().findViewById(R.id.brave_sync_devices));
     }
 
     private void leaveSyncChainComplete() {
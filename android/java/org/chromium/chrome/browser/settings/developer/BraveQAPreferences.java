@@ -25,10 +25,12 @@ import android.widget.Toast;
 import androidx.preference.Preference;
 import androidx.preference.Preference.OnPreferenceChangeListener;
 
+import org.chromium.base.BraveMainThreadIoGuard;
 import org.chromium.base.ContextUtils;
 import org.chromium.base.FileUtils;
 import org.chromium.base.Log;
 import org.chromium.base.annotations.CalledByNative;
+import org.chromium.base.task.AsyncTask;
 import org.chromium.chrome.R;
 import org.chromium.chrome.browser.BraveConfig;
 import org.chromium.chrome.browser.BraveRelaunchUtils;
@@ -38,18 +40,23 @@ import org.chromium.chrome.browser.BraveRewardsPanelPopup;
 import org.chromium.chrome.browser.preferences.BravePrefServiceBridge;
 import org.chromium.chrome.browser.settings.BravePreferenceFragment;
 import org.chromium.chrome.browser.util.BraveDbUtil;
+import org.chromium.chrome.browser.util.BraveTraceRecorder;
 import org.chromium.components.browser_ui.settings.ChromeSwitchPreference;
 import org.chromium.components.browser_ui.settings.SettingsUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * Settings fragment containing preferences for QA team.
  */
 public class BraveQAPreferences extends BravePreferenceFragment
     implements OnPreferenceChangeListener, BraveRewardsObserver {
+    private static final String TAG = "BraveQAPreferences";
+
     private static final String PREF_USE_REWARDS_STAGING_SERVER = "use_rewards_staging_server";
     private static final String PREF_USE_SYNC_STAGING_SERVER = "use_sync_staging_server";
     private static final String PREF_QA_MAXIMIZE_INITIAL_ADS_NUMBER =
@@ -61,6 +68,10 @@ public class BraveQAPreferences extends BravePreferenceFragment
     private static final String QA_IMPORT_REWARDS_DB = "qa_import_rewards_db";
     private static final String QA_EXPORT_REWARDS_DB = "qa_export_rewards_db";
     private static final String QA_RESTORE_WALLET = "qa_restore_wallet";
+    private static final String QA_DUMP_STARTUP_TRACE = "qa_dump_startup_trace";
+    private static final String QA_EXPORT_STARTUP_TRACE = "qa_export_startup_trace";
+    private static final String QA_DUMP_MAIN_THREAD_IO = "qa_dump_main_thread_io";
+    private static final String STARTUP_TRACE_FILE_PREFIX = "brave_startup_trace";
 
     private static final int CHOOSE_FILE_FOR_IMPORT_REQUEST_CODE = STORAGE_PERMISSION_IMPORT_REQUEST_CODE + 1;
 
@@ -73,6 +84,9 @@ public class BraveQAPreferences extends BravePreferenceFragment
     private ChromeSwitchPreference mDebugNTP;
     private ChromeSwitchPreference mVlogRewards;
     private Preference mRestoreWallet;
+    private Preference mDumpStartupTrace;
+    private Preference mExportStartupTrace;
+    private Preference mDumpMainThreadIo;
 
     private Preference mImportRewardsDb;
     private Preference mExportRewardsDb;
@@ -124,6 +138,24 @@ public class BraveQAPreferences extends BravePreferenceFragment
         mRestoreWallet = findPreference(QA_RESTORE_WALLET);
         setRestoreClickListener();
 
+        mDumpStartupTrace = findPreference(QA_DUMP_STARTUP_TRACE);
+        mExportStartupTrace = findPreference(QA_EXPORT_STARTUP_TRACE);
+        setStartupTraceClickListeners();
+
+        mDumpMainThreadIo = findPreference(QA_DUMP_MAIN_THREAD_IO);
+        if (mDumpMainThreadIo != null) {
+            mDumpMainThreadIo.setOnPreferenceClickListener(preference -> {
+                String dump = BraveMainThreadIoGuard.dump();
+                AlertDialog.Builder alertDialog =
+                    new AlertDialog.Builder(getActivity(), R.style.Theme_Chromium_AlertDialog)
+                    .setTitle("Main thread I/O calls")
+                    .setMessage(dump.isEmpty() ? "None recorded" : dump)
+                    .setPositiveButton(R.string.ok, null);
+                alertDialog.create().show();
+                return true;
+            });
+        }
+
         checkQACode();
     }
 
@@ -167,6 +199,50 @@ public class BraveQAPreferences extends BravePreferenceFragment
         }
     }
 
+    private void setStartupTraceClickListeners() {
+        if (mDumpStartupTrace != null) {
+            mDumpStartupTrace.setOnPreferenceClickListener(preference -> {
+                String dump = BraveTraceRecorder.dump() + BraveTraceRecorder.dumpMethodHistograms();
+                AlertDialog.Builder alertDialog =
+                    new AlertDialog.Builder(getActivity(), R.style.Theme_Chromium_AlertDialog)
+                    .setTitle("Startup trace")
+                    .setMessage(dump.isEmpty() ? "No spans recorded" : dump)
+                    .setPositiveButton(R.string.ok, null);
+                alertDialog.create().show();
+                return true;
+            });
+        }
+
+        if (mExportStartupTrace != null) {
+            mExportStartupTrace.setOnPreferenceClickListener(preference -> {
+                Context context = ContextUtils.getApplicationContext();
+                SimpleDateFormat dateFormat = new SimpleDateFormat("-yyyy-MM-dd-HHmmss");
+                File traceFile = new File(context.getExternalFilesDir(null),
+                        STARTUP_TRACE_FILE_PREFIX + dateFormat.format(new Date()) + ".json");
+                new AsyncTask<Boolean>() {
+                    @Override
+                    protected Boolean doInBackground() {
+                        try {
+                            BraveTraceRecorder.exportTraceEventJson(traceFile);
+                            return true;
+                        } catch (IOException e) {
+                            Log.e(TAG, "Error on exporting startup trace: " + e);
+                            return false;
+                        }
+                    }
+
+                    @Override
+                    protected void onPostExecute(Boolean succeeded) {
+                        String msg = succeeded ? "Startup trace exported to " + traceFile.getPath()
+                                : "Failed to export startup trace";
+                        Toast.makeText(context, msg, Toast.LENGTH_LONG).show();
+                    }
+                }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                return true;
+            });
+        }
+    }
+
     private void setRewardsDbClickListeners() {
         if (mImportRewardsDb != null) {
             mImportRewardsDb.setOnPreferenceClickListener( preference -> {
@@ -352,18 +428,28 @@ public class BraveQAPreferences extends BravePreferenceFragment
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == CHOOSE_FILE_FOR_IMPORT_REQUEST_CODE && resultCode == Activity.RESULT_OK
                 && data != null) {
-            try {
-                InputStream in =
-                    ContextUtils.getApplicationContext().getContentResolver().openInputStream(
-                        data.getData());
-                mFileToImport = mDbUtil.importDestinationPath() + ".prep";
-                FileUtils.copyStreamToFile(in, new File(mFileToImport));
-                in.close();
-            } catch (IOException e) {
-                Log.e(BraveDbUtil.getTag(), "Error on preparing database file: " + e);
-                return;
-            }
-            requestRestart(true);
+            final String fileToImport = mDbUtil.importDestinationPath() + ".prep";
+            new AsyncTask<Boolean>() {
+                @Override
+                protected Boolean doInBackground() {
+                    try (InputStream in =
+                            ContextUtils.getApplicationContext().getContentResolver()
+                                    .openInputStream(data.getData())) {
+                        FileUtils.copyStreamToFile(in, new File(fileToImport));
+                        return true;
+                    } catch (IOException e) {
+                        Log.e(BraveDbUtil.getTag(), "Error on preparing database file: " + e);
+                        return false;
+                    }
+                }
+
+                @Override
+                protected void onPostExecute(Boolean succeeded) {
+                    if (!succeeded || getActivity() == null) return;
+                    mFileToImport = fileToImport;
+                    requestRestart(true);
+                }
+            }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
         }
     }
 
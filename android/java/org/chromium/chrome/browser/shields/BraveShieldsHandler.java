@@ -12,27 +12,27 @@ import android.animation.AnimatorSet;
 import android.app.Activity;
 import android.content.Context;
 import android.content.ContextWrapper;
+import android.content.pm.ActivityInfo;
+import android.content.res.Configuration;
 import android.graphics.Bitmap;
 import android.graphics.Color;
-import android.graphics.Point;
-import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.text.SpannableString;
 import android.text.Spanned;
 import android.text.method.LinkMovementMethod;
 import android.text.style.ClickableSpan;
 import android.text.style.ImageSpan;
 import android.text.style.StyleSpan;
-import android.view.ContextThemeWrapper;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.MotionEvent;
-import android.view.Surface;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.animation.TranslateAnimation;
@@ -51,11 +51,9 @@ import android.widget.TextView;
 
 import org.chromium.base.SysUtils;
 import org.chromium.base.Log;
-import org.chromium.base.task.AsyncTask;
 import org.chromium.chrome.R;
 import org.chromium.chrome.browser.BraveRewardsHelper;
 import org.chromium.chrome.browser.BraveRewardsNativeWorker;
-import org.chromium.chrome.browser.night_mode.GlobalNightModeStateProviderHolder;
 import org.chromium.chrome.browser.preferences.website.BraveShieldsContentSettings;
 import org.chromium.chrome.browser.profiles.Profile;
 import org.chromium.chrome.browser.shields.BraveShieldsMenuObserver;
@@ -69,7 +67,7 @@ import java.util.Map;
 /**
  * Object responsible for handling the creation, showing, hiding of the BraveShields menu.
  */
-public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCallback {
+public class BraveShieldsHandler {
 
     private static class BlockersInfo {
         public BlockersInfo() {
@@ -87,8 +85,15 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         public int mFingerprintsBlocked;
     }
 
+    // Configuration changes after which the cached popup is inflated again.
+    private static final int POPUP_CONFIG_CHANGES = ActivityInfo.CONFIG_UI_MODE
+            | ActivityInfo.CONFIG_DENSITY | ActivityInfo.CONFIG_LOCALE
+            | ActivityInfo.CONFIG_FONT_SCALE;
+
     private final Context mContext;
     private PopupWindow mPopupWindow;
+    private Configuration mPopupConfiguration;
+    private BraveShieldsPopupGeometry mPopupGeometry;
     private AnimatorSet mMenuItemEnterAnimator;
     private BraveShieldsMenuObserver mMenuObserver;
     private View mHardwareButtonMenuAnchor;
@@ -101,6 +106,12 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
     private OnCheckedChangeListener mBraveShieldsHTTPSEverywhereChangeListener;
     private Switch mBraveShieldsBlockingScriptsSwitch;
     private OnCheckedChangeListener mBraveShieldsBlockingScriptsChangeListener;
+    private Switch mShieldMainSwitch;
+    private OnCheckedChangeListener mShieldMainSwitchChangeListener;
+    private RadioGroup mCookiesOptionGroup;
+    private RadioGroup.OnCheckedChangeListener mCookiesOptionChangeListener;
+    private RadioGroup mFingerprintingOptionGroup;
+    private RadioGroup.OnCheckedChangeListener mFingerprintingOptionChangeListener;
 
     private View mPopupView;
     private LinearLayout mMainLayout;
@@ -109,6 +120,15 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
     private LinearLayout mToggleLayout;
     private LinearLayout mThankYouLayout;
     private LinearLayout mReportBrokenSiteLayout;
+    private LinearLayout mBlockCookiesLayout;
+    private LinearLayout mBlockFingerprintingLayout;
+    private LinearLayout mSiteBlockLayout;
+    private ImageView mSiteFavicon;
+    private TextView mSiteText;
+    private TextView mShieldsText;
+    private TextView mShieldsUpText;
+    private TextView mReportSiteUrlText;
+    private Button mReportBrokenSiteButton;
     private TextView mSiteBlockCounterText;
     private TextView mShieldsDownText;
     private TextView mSiteBrokenWarningText;
@@ -194,75 +214,89 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         updateValues(mTabId);
     }
 
-    public PopupWindow showPopupMenu(View anchorView, boolean isTooltip) {
-        int rotation = ((Activity)mContext).getWindowManager().getDefaultDisplay().getRotation();
-        // This fixes the bug where the bottom of the menu starts at the top of
-        // the keyboard, instead of overlapping the keyboard as it should.
-        int displayHeight = mContext.getResources().getDisplayMetrics().heightPixels;
-        int widthHeight = mContext.getResources().getDisplayMetrics().widthPixels;
-        int currentDisplayWidth = widthHeight;
-
-        // In appcompat 23.2.1, DisplayMetrics are not updated after rotation change. This is a
-        // workaround for it. See crbug.com/599048.
-        // TODO(ianwen): Remove the rotation check after we roll to 23.3.0.
-        if (rotation == Surface.ROTATION_0 || rotation == Surface.ROTATION_180) {
-            currentDisplayWidth = Math.min(displayHeight, widthHeight);
-            displayHeight = Math.max(displayHeight, widthHeight);
-        } else if (rotation == Surface.ROTATION_90 || rotation == Surface.ROTATION_270) {
-            currentDisplayWidth = Math.max(displayHeight, widthHeight);
-            displayHeight = Math.min(displayHeight, widthHeight);
-        } else {
-            assert false : "Rotation unexpected";
+    /**
+     * Inflates the shields popup once the UI thread is idle, so that {@link #show} only has to
+     * bind the current tab to it.
+     */
+    public void preInflate() {
+        if (mHardwareButtonMenuAnchor == null || mPopupView != null) return;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                ensurePopupView();
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Inflates the popup content and sets up its views, unless it was done already for the
+     * current configuration. The views and the popup window are kept and reused by every show.
+     */
+    private void ensurePopupView() {
+        Configuration configuration = mContext.getResources().getConfiguration();
+        if (mPopupView != null
+                && (mPopupConfiguration.diff(configuration) & POPUP_CONFIG_CHANGES) == 0) {
+            return;
         }
+        hideBraveShieldsMenu();
+        mPopupWindow = null;
+        mPopupConfiguration = new Configuration(configuration);
+        mPopupView = LayoutInflater.from(mContext).inflate(R.layout.brave_shields_main_layout, null);
+        setUpViews();
+    }
+
+    public PopupWindow showPopupMenu(View anchorView, boolean isTooltip) {
+        BraveShieldsPopupGeometry geometry = getPopupGeometry();
         if (anchorView == null) {
-            Rect rect = new Rect();
-            ((Activity)mContext).getWindow().getDecorView().getWindowVisibleDisplayFrame(rect);
-            int statusBarHeight = rect.top;
-            mHardwareButtonMenuAnchor.setY((displayHeight - statusBarHeight));
+            mHardwareButtonMenuAnchor.setY(geometry.getHardwareMenuAnchorY(
+                    BraveShieldsPopupGeometry.getVisibleDisplayFrame((Activity) mContext)));
 
             anchorView = mHardwareButtonMenuAnchor;
         }
 
-        ContextThemeWrapper wrapper = new ContextThemeWrapper(mContext, R.style.OverflowMenuThemeOverlay);
-        Point pt = new Point();
-        ((Activity)mContext).getWindowManager().getDefaultDisplay().getSize(pt);
-        // Get the height and width of the display.
-        Rect appRect = new Rect();
-        ((Activity)mContext).getWindow().getDecorView().getWindowVisibleDisplayFrame(appRect);
-
-        // Use full size of window for abnormal appRect.
-        if (appRect.left < 0 && appRect.top < 0) {
-            appRect.left = 0;
-            appRect.top = 0;
-            appRect.right = ((Activity)mContext).getWindow().getDecorView().getWidth();
-            appRect.bottom = ((Activity)mContext).getWindow().getDecorView().getHeight();
+        PopupWindow popupWindow;
+        if (! isTooltip) {
+            ensurePopupView();
+            bindViews();
+            if (mPopupWindow == null) {
+                mPopupWindow = createPopupWindow(mPopupView);
+            }
+            popupWindow = mPopupWindow;
+        } else {
+            LayoutInflater inflater = (LayoutInflater) anchorView.getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+            popupWindow = createPopupWindow(
+                    inflater.inflate(R.layout.brave_shields_tooltip_layout, null));
         }
 
-        LayoutInflater inflater = (LayoutInflater) anchorView.getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        popupWindow.setWidth(geometry.getPopupWidth());
 
-        if (! isTooltip) {
-            mPopupView = inflater.inflate(R.layout.brave_shields_main_layout, null);
-            setUpViews();
-        } else {
-            mPopupView = inflater.inflate(R.layout.brave_shields_tooltip_layout, null);
+        //Set the location of the window on the screen
+        popupWindow.showAsDropDown(anchorView, 0, 0);
+
+        return popupWindow;
+    }
+
+    private BraveShieldsPopupGeometry getPopupGeometry() {
+        if (mPopupGeometry == null
+                || !mPopupGeometry.isFor(mContext.getResources().getConfiguration())) {
+            mPopupGeometry = BraveShieldsPopupGeometry.create((Activity) mContext);
         }
+        return mPopupGeometry;
+    }
 
-        //Specify the length and width through constants
-        int width = (int)((mContext.getResources().getDisplayMetrics().widthPixels) * 0.75);
+    private PopupWindow createPopupWindow(View contentView) {
         int height = LinearLayout.LayoutParams.WRAP_CONTENT;
 
         //Make Inactive Items Outside Of PopupWindow
         boolean focusable = true;
 
         //Create a window with our parameters
-        PopupWindow popupWindow = new PopupWindow(mPopupView, width, height, focusable);
+        PopupWindow popupWindow = new PopupWindow(contentView, 0, height, focusable);
         popupWindow.setBackgroundDrawable(new ColorDrawable(Color.WHITE));
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             popupWindow.setElevation(20);
         }
-        // mPopup.setBackgroundDrawable(mContext.getResources().getDrawable(android.R.drawable.picture_frame));
-        //Set the location of the window on the screen
-        popupWindow.showAsDropDown(anchorView, 0, 0);
         popupWindow.setInputMethodMode(PopupWindow.INPUT_METHOD_NOT_NEEDED);
         popupWindow.setAnimationStyle(R.style.OverflowMenuAnim);
 
@@ -272,14 +306,6 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
             popupWindow.setAnimationStyle(0);
         }
 
-        Rect bgPadding = new Rect();
-        popupWindow.getBackground().getPadding(bgPadding);
-
-        int popupWidth = wrapper.getResources().getDimensionPixelSize(R.dimen.menu_width)
-                         + bgPadding.left + bgPadding.right;
-
-        popupWindow.setWidth(popupWidth);
-
         return popupWindow;
     }
 
@@ -365,29 +391,28 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
 
         mReportBrokenSiteLayout = mPopupView.findViewById(R.id.brave_shields_report_site_layout_id);
         mThankYouLayout = mPopupView.findViewById(R.id.brave_shields_thank_you_layout_id);
+        mBlockCookiesLayout = mPopupView.findViewById(R.id.brave_shields_block_cookies_layout_id);
+        mBlockFingerprintingLayout = mPopupView.findViewById(R.id.brave_shields_block_fingerprinting_layout_id);
 
         mBottomDivider = mToggleLayout.findViewById(R.id.bottom_divider);
         mToggleIcon = mToggleLayout.findViewById(R.id.toggle_favicon);
+
+        mSiteFavicon = mMainLayout.findViewById(R.id.site_favicon);
+        mSiteText = mMainLayout.findViewById(R.id.site_text);
+        mShieldMainSwitch = mMainLayout.findViewById(R.id.site_switch);
+        mShieldsUpText = mMainLayout.findViewById(R.id.shield_up_text);
+        mReportBrokenSiteButton = mMainLayout.findViewById(R.id.btn_report_broken_site);
+        mSiteBlockLayout = mMainLayout.findViewById(R.id.site_block_layout);
+        mShieldsText = mSecondaryLayout.findViewById(R.id.brave_shields_text);
+        mReportSiteUrlText = mReportBrokenSiteLayout.findViewById(R.id.report_site_url);
     }
 
     private void setUpMainLayout() {
-        String favIconURL = mBraveRewardsNativeWorker.GetPublisherFavIconURL(mTabId);
-        Tab currentActiveTab = mIconFetcher.getTab();
-        String url = currentActiveTab.getUrlString();
-        final String favicon_url = (favIconURL.isEmpty()) ? url : favIconURL;
-        mIconFetcher.retrieveLargeIcon(favicon_url, this);
-
-        TextView mSiteText = mMainLayout.findViewById(R.id.site_text);
-        mSiteText.setText(mTitle.replaceFirst("^(http[s]?://www\\.|http[s]?://|www\\.)", ""));
-
-        Switch mShieldMainSwitch = mMainLayout.findViewById(R.id.site_switch);
-
         ClickableSpan mClickableSpan = new ClickableSpan() {
             @Override
             public void onClick(View widget) {
                 mMainLayout.setVisibility(View.GONE);
                 mAboutLayout.setVisibility(View.VISIBLE);
-                setUpAboutLayout();
             }
         };
 
@@ -408,11 +433,56 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
             }
         });
 
+        mReportBrokenSiteButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                mMainLayout.setVisibility(View.GONE);
+                mReportBrokenSiteLayout.setVisibility(View.VISIBLE);
+            }
+        });
+
         setUpSecondaryLayout();
 
         setupMainSwitchClick(mShieldMainSwitch);
     }
 
+    /**
+     * Binds the current tab to the popup views, which may still show another tab or another
+     * page of the popup since the last time it was shown.
+     */
+    private void bindViews() {
+        mPopupView.scrollTo(0, 0);
+        mMainLayout.setVisibility(View.VISIBLE);
+        mAboutLayout.setVisibility(View.GONE);
+        mBlockCookiesLayout.setVisibility(View.GONE);
+        mBlockFingerprintingLayout.setVisibility(View.GONE);
+        mReportBrokenSiteLayout.setVisibility(View.GONE);
+        mThankYouLayout.setVisibility(View.GONE);
+        setToggleView(false);
+
+        mSiteFavicon.setImageDrawable(null);
+        String favIconURL = mBraveRewardsNativeWorker.GetPublisherFavIconURL(mTabId);
+        Tab currentActiveTab = mIconFetcher.getTab();
+        String url = currentActiveTab.getUrlString();
+        final String favicon_url = (favIconURL.isEmpty()) ? url : favIconURL;
+        // The fetcher of a previous show may still answer, with the icon of another site.
+        final String faviconHost = mHost;
+        mIconFetcher.retrieveLargeIcon(favicon_url, icon -> SetFavIcon(icon, faviconHost));
+
+        String siteText = mTitle.replaceFirst("^(http[s]?://www\\.|http[s]?://|www\\.)", "");
+        mSiteText.setText(siteText);
+        mShieldsText.setText(siteText);
+        mReportSiteUrlText.setText(mTitle);
+        mSiteBlockCounterText.setText("");
+
+        setupAdsTrackingSwitch(mBraveShieldsBlockTrackersSwitch, true);
+        setupHTTPSEverywhereSwitch(mBraveShieldsHTTPSEverywhereSwitch, true);
+        setupBlockingScriptsSwitch(mBraveShieldsBlockingScriptsSwitch, true);
+        bindCookiesOption();
+        bindFingerprintingOption();
+        setupMainSwitch(mShieldMainSwitch);
+    }
+
     private void setToggleView(boolean shouldShow) {
         if (shouldShow) {
             mSecondaryLayout.setVisibility(View.VISIBLE);
@@ -426,9 +496,6 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
     }
 
     private void setUpSecondaryLayout() {
-        TextView shieldsText = mSecondaryLayout.findViewById(R.id.brave_shields_text);
-        shieldsText.setText(mTitle.replaceFirst("^(http[s]?://www\\.|http[s]?://|www\\.)", ""));
-
         setUpSwitchLayouts();
         setUpCookiesLayout();
         setUpFingerprintingLayout();
@@ -455,7 +522,6 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
     }
 
     private void setUpCookiesLayout() {
-        LinearLayout mBlockCookiesLayout = mPopupView.findViewById(R.id.brave_shields_block_cookies_layout_id);
         TextView mCookiesOptionTitle = mBlockCookiesLayout.findViewById(R.id.option_title);
         mCookiesOptionTitle.setText(R.string.block_cookies);
         TextView mCookiesOptionText = mBlockCookiesLayout.findViewById(R.id.option_text);
@@ -492,17 +558,8 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         TextView mCookiesText = mCookiesLayout.findViewById(R.id.toggle_text);
         mCookiesText.setText(R.string.block_cookies);
 
-        String settingOption = BraveShieldsContentSettings.getShieldsValue(mProfile, mHost, BraveShieldsContentSettings.RESOURCE_IDENTIFIER_COOKIES);
-        if (settingOption.equals(BraveShieldsContentSettings.BLOCK_RESOURCE)) {
-            mCookiesOption1.setChecked(true);
-        } else if (settingOption.equals(BraveShieldsContentSettings.BLOCK_THIRDPARTY_RESOURCE)) {
-            mCookiesOption2.setChecked(true);
-        } else if (settingOption.equals(BraveShieldsContentSettings.ALLOW_RESOURCE)) {
-            mCookiesOption3.setChecked(true);
-        }
-
-        RadioGroup mCookiesOptionGroup = mBlockCookiesLayout.findViewById(R.id.options_radio_group);
-        mCookiesOptionGroup.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
+        mCookiesOptionGroup = mBlockCookiesLayout.findViewById(R.id.options_radio_group);
+        mCookiesOptionChangeListener = new RadioGroup.OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(RadioGroup group, int checkedId) {
                 RadioButton checkedRadioButton = (RadioButton)group.findViewById(checkedId);
@@ -521,28 +578,44 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
                     }
                 }
             }
-        });
+        };
+        mCookiesOptionGroup.setOnCheckedChangeListener(mCookiesOptionChangeListener);
+    }
+
+    private void bindCookiesOption() {
+        // Prevents to fire an event when the option of the tab is checked
+        mCookiesOptionGroup.setOnCheckedChangeListener(null);
+        String settingOption = BraveShieldsContentSettings.getShieldsValue(mProfile, mHost, BraveShieldsContentSettings.RESOURCE_IDENTIFIER_COOKIES);
+        if (settingOption.equals(BraveShieldsContentSettings.BLOCK_RESOURCE)) {
+            mCookiesOptionGroup.check(R.id.option1);
+        } else if (settingOption.equals(BraveShieldsContentSettings.BLOCK_THIRDPARTY_RESOURCE)) {
+            mCookiesOptionGroup.check(R.id.option2);
+        } else if (settingOption.equals(BraveShieldsContentSettings.ALLOW_RESOURCE)) {
+            mCookiesOptionGroup.check(R.id.option3);
+        } else {
+            mCookiesOptionGroup.clearCheck();
+        }
+        mCookiesOptionGroup.setOnCheckedChangeListener(mCookiesOptionChangeListener);
     }
 
     private void setUpFingerprintingLayout() {
-        LinearLayout mBlockFingerPrintingLayout = mPopupView.findViewById(R.id.brave_shields_block_fingerprinting_layout_id);
-        TextView mFingerprintingOptionTitle = mBlockFingerPrintingLayout.findViewById(R.id.option_title);
+        TextView mFingerprintingOptionTitle = mBlockFingerprintingLayout.findViewById(R.id.option_title);
         mFingerprintingOptionTitle.setText(R.string.block_fingerprinting);
-        TextView mFingerprintingOptionText = mBlockFingerPrintingLayout.findViewById(R.id.option_text);
+        TextView mFingerprintingOptionText = mBlockFingerprintingLayout.findViewById(R.id.option_text);
         mFingerprintingOptionText.setText(R.string.block_fingerprinting_text);
-        RadioButton mFingerprintingOption1 = mBlockFingerPrintingLayout.findViewById(R.id.option1);
+        RadioButton mFingerprintingOption1 = mBlockFingerprintingLayout.findViewById(R.id.option1);
         mFingerprintingOption1.setText(R.string.block_fingerprinting_option_1);
-        RadioButton mFingerprintingOption2 = mBlockFingerPrintingLayout.findViewById(R.id.option2);
+        RadioButton mFingerprintingOption2 = mBlockFingerprintingLayout.findViewById(R.id.option2);
         mFingerprintingOption2.setText(R.string.block_fingerprinting_option_2);
-        RadioButton mFingerprintingOption3 = mBlockFingerPrintingLayout.findViewById(R.id.option3);
+        RadioButton mFingerprintingOption3 = mBlockFingerprintingLayout.findViewById(R.id.option3);
         mFingerprintingOption3.setText(R.string.block_fingerprinting_option_3);
-        Button mFingerprintingDoneButton = mBlockFingerPrintingLayout.findViewById(R.id.done_button);
+        Button mFingerprintingDoneButton = mBlockFingerprintingLayout.findViewById(R.id.done_button);
         mFingerprintingDoneButton.setOnClickListener(mDoneClickListener);
-        ImageView mFingerprintingBackButton = mBlockFingerPrintingLayout.findViewById(R.id.back_button);
+        ImageView mFingerprintingBackButton = mBlockFingerprintingLayout.findViewById(R.id.back_button);
         mFingerprintingBackButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
-                mBlockFingerPrintingLayout.setVisibility(View.GONE);
+                mBlockFingerprintingLayout.setVisibility(View.GONE);
                 mMainLayout.setVisibility(View.VISIBLE);
             }
         });
@@ -553,7 +626,7 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
             @Override
             public void onClick(View view) {
                 mMainLayout.setVisibility(View.GONE);
-                mBlockFingerPrintingLayout.setVisibility(View.VISIBLE);
+                mBlockFingerprintingLayout.setVisibility(View.VISIBLE);
             }
         });
         ImageView mFingerPrintingIcon = mFingerPrintingLayout.findViewById(R.id.toggle_favicon);
@@ -562,17 +635,8 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         TextView mFingerPrintingText = mFingerPrintingLayout.findViewById(R.id.toggle_text);
         mFingerPrintingText.setText(R.string.block_fingerprinting);
 
-        String settingOption = BraveShieldsContentSettings.getShieldsValue(mProfile, mHost, BraveShieldsContentSettings.RESOURCE_IDENTIFIER_FINGERPRINTING);
-        if (settingOption.equals(BraveShieldsContentSettings.BLOCK_RESOURCE)) {
-            mFingerprintingOption1.setChecked(true);
-        } else if (settingOption.equals(BraveShieldsContentSettings.DEFAULT)) {
-            mFingerprintingOption2.setChecked(true);
-        } else if (settingOption.equals(BraveShieldsContentSettings.ALLOW_RESOURCE)) {
-            mFingerprintingOption3.setChecked(true);
-        }
-
-        RadioGroup mFingerprintingOptionGroup = mBlockFingerPrintingLayout.findViewById(R.id.options_radio_group);
-        mFingerprintingOptionGroup.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
+        mFingerprintingOptionGroup = mBlockFingerprintingLayout.findViewById(R.id.options_radio_group);
+        mFingerprintingOptionChangeListener = new RadioGroup.OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(RadioGroup group, int checkedId) {
                 RadioButton checkedRadioButton = (RadioButton)group.findViewById(checkedId);
@@ -591,7 +655,24 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
                     }
                 }
             }
-        });
+        };
+        mFingerprintingOptionGroup.setOnCheckedChangeListener(mFingerprintingOptionChangeListener);
+    }
+
+    private void bindFingerprintingOption() {
+        // Prevents to fire an event when the option of the tab is checked
+        mFingerprintingOptionGroup.setOnCheckedChangeListener(null);
+        String settingOption = BraveShieldsContentSettings.getShieldsValue(mProfile, mHost, BraveShieldsContentSettings.RESOURCE_IDENTIFIER_FINGERPRINTING);
+        if (settingOption.equals(BraveShieldsContentSettings.BLOCK_RESOURCE)) {
+            mFingerprintingOptionGroup.check(R.id.option1);
+        } else if (settingOption.equals(BraveShieldsContentSettings.DEFAULT)) {
+            mFingerprintingOptionGroup.check(R.id.option2);
+        } else if (settingOption.equals(BraveShieldsContentSettings.ALLOW_RESOURCE)) {
+            mFingerprintingOptionGroup.check(R.id.option3);
+        } else {
+            mFingerprintingOptionGroup.clearCheck();
+        }
+        mFingerprintingOptionGroup.setOnCheckedChangeListener(mFingerprintingOptionChangeListener);
     }
 
     private void setUpAboutLayout() {
@@ -616,9 +697,6 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
     }
 
     private void setUpReportBrokenSiteLayout() {
-        TextView mReportSiteUrlText = mReportBrokenSiteLayout.findViewById(R.id.report_site_url);
-        mReportSiteUrlText.setText(mTitle);
-
         Button mCancelButton = mReportBrokenSiteLayout.findViewById(R.id.btn_cancel);
         mCancelButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -631,8 +709,7 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         mSubmitButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
-                BraveShieldsUtils.BraveShieldsWorkerTask mWorkerTask = new BraveShieldsUtils.BraveShieldsWorkerTask(mTitle);
-                mWorkerTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                BraveShieldsUtils.sendBraveShieldsFeedback(mTitle);
                 mReportBrokenSiteLayout.setVisibility(View.GONE);
                 mThankYouLayout.setVisibility(View.VISIBLE);
             }
@@ -640,25 +717,10 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
     }
 
     private void setUpMainSwitchLayout(boolean isChecked) {
-        TextView mShieldDownText = mMainLayout.findViewById(R.id.shield_down_text);
-        Button mReportBrokenSiteButton = mMainLayout.findViewById(R.id.btn_report_broken_site);
-        mReportBrokenSiteButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View view) {
-                mMainLayout.setVisibility(View.GONE);
-                mReportBrokenSiteLayout.setVisibility(View.VISIBLE);
-                setUpReportBrokenSiteLayout();
-            }
-        });
-
-        LinearLayout mSiteBlockLayout = mMainLayout.findViewById(R.id.site_block_layout);
-        TextView mSiteBrokenWarningText = mMainLayout.findViewById(R.id.site_broken_warning_text);
-
-        TextView mShieldsUpText = mMainLayout.findViewById(R.id.shield_up_text);
         String mBraveShieldsText = mContext.getResources().getString(R.string.brave_shields_onboarding_title);
 
         if (isChecked) {
-            mShieldDownText.setVisibility(View.GONE);
+            mShieldsDownText.setVisibility(View.GONE);
             mReportBrokenSiteButton.setVisibility(View.GONE);
 
             mSiteBlockLayout.setVisibility(View.VISIBLE);
@@ -670,7 +732,7 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
             mSpanString.setSpan(new StyleSpan(Typeface.BOLD), mSpanString.length() - mUpText.length(), mSpanString.length(), 0);
             mShieldsUpText.setText(mSpanString);
         } else {
-            mShieldDownText.setVisibility(View.VISIBLE);
+            mShieldsDownText.setVisibility(View.VISIBLE);
             mReportBrokenSiteButton.setVisibility(View.VISIBLE);
 
             mSiteBlockLayout.setVisibility(View.GONE);
@@ -685,20 +747,21 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         }
     }
 
+    /**
+     * Finds the views and sets up everything that doesn't depend on the tab, once per inflation.
+     */
     private void setUpViews() {
-        boolean isNightMode = GlobalNightModeStateProviderHolder.getInstance().isInNightMode();
-
         initViews();
 
         setUpMainLayout();
+        setUpAboutLayout();
+        setUpReportBrokenSiteLayout();
     }
 
     private void setupAdsTrackingSwitchClick(Switch braveShieldsAdsTrackingSwitch) {
         if (null == braveShieldsAdsTrackingSwitch) {
             return;
         }
-        setupAdsTrackingSwitch(braveShieldsAdsTrackingSwitch, false);
-
         mBraveShieldsAdsTrackingChangeListener = new OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton buttonView,
@@ -745,8 +808,6 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         if (null == braveShieldsHTTPSEverywhereSwitch) {
             return;
         }
-        setupHTTPSEverywhereSwitch(braveShieldsHTTPSEverywhereSwitch, false);
-
         mBraveShieldsHTTPSEverywhereChangeListener = new OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton buttonView,
@@ -793,8 +854,6 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         if (null == braveShieldsBlockingScriptsSwitch) {
             return;
         }
-        setupBlockingScriptsSwitch(braveShieldsBlockingScriptsSwitch, false);
-
         mBraveShieldsBlockingScriptsChangeListener = new OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton buttonView,
@@ -841,16 +900,7 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
         if (null == braveShieldsSwitch) {
             return;
         }
-        if (0 != mHost.length()) {
-            if (BraveShieldsContentSettings.getShields(mProfile, mHost, BraveShieldsContentSettings.RESOURCE_IDENTIFIER_BRAVE_SHIELDS)) {
-                braveShieldsSwitch.setChecked(true);
-                setUpMainSwitchLayout(true);
-            } else {
-                braveShieldsSwitch.setChecked(false);
-                setUpMainSwitchLayout(false);
-            }
-        }
-        braveShieldsSwitch.setOnCheckedChangeListener(new OnCheckedChangeListener() {
+        mShieldMainSwitchChangeListener = new OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton buttonView,
                                          boolean isChecked) {
@@ -866,23 +916,33 @@ public class BraveShieldsHandler implements BraveRewardsHelper.LargeIconReadyCal
 
                 setUpMainSwitchLayout(isChecked);
             }
-        });
+        };
+        braveShieldsSwitch.setOnCheckedChangeListener(mShieldMainSwitchChangeListener);
     }
 
-    @Override
-    public void onLargeIconReady(Bitmap icon) {
-        SetFavIcon(icon);
+    private void setupMainSwitch(Switch braveShieldsSwitch) {
+        if (null == braveShieldsSwitch) {
+            return;
+        }
+        // Prevents to fire an event when the switch of the tab is checked
+        braveShieldsSwitch.setOnCheckedChangeListener(null);
+        // The switch may still show the state of the previous tab, so it is set even when
+        // there is no host to read it for.
+        boolean enabled = 0 != mHost.length()
+                && BraveShieldsContentSettings.getShields(mProfile, mHost, BraveShieldsContentSettings.RESOURCE_IDENTIFIER_BRAVE_SHIELDS);
+        braveShieldsSwitch.setChecked(enabled);
+        setUpMainSwitchLayout(enabled);
+        braveShieldsSwitch.setOnCheckedChangeListener(mShieldMainSwitchChangeListener);
     }
 
-
-    private void SetFavIcon(Bitmap bmp) {
+    private void SetFavIcon(Bitmap bmp, String host) {
         if (bmp != null) {
             ((Activity)mContext).runOnUiThread(
             new Runnable() {
                 @Override
                 public void run() {
-                    ImageView iv = (ImageView) mPopupView.findViewById(R.id.site_favicon);
-                    iv.setImageBitmap(BraveRewardsHelper.getCircularBitmap(bmp));
+                    if (!host.equals(mHost)) return;
+                    mSiteFavicon.setImageBitmap(BraveRewardsHelper.getCircularBitmap(bmp));
                 }
             });
         }
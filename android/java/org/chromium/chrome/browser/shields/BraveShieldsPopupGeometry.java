@@ -0,0 +1,69 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.shields;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+import android.graphics.Rect;
+import android.util.DisplayMetrics;
+
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Display geometry used to place the Brave Shields popup. The display metrics are read once per
+ * configuration, instead of on every open of the popup. The visible display frame changes
+ * without a configuration change, e.g. when the status bar is hidden in fullscreen or in
+ * multi-window mode, so it is passed in on every open.
+ */
+class BraveShieldsPopupGeometry {
+    // Part of the display width taken by the popup.
+    @VisibleForTesting
+    static final float POPUP_WIDTH_RATIO = 0.75f;
+
+    private final Configuration mConfiguration;
+    private final int mDisplayWidth;
+    private final int mDisplayHeight;
+
+    @VisibleForTesting
+    BraveShieldsPopupGeometry(Configuration configuration, DisplayMetrics metrics) {
+        mConfiguration = new Configuration(configuration);
+        mDisplayWidth = metrics.widthPixels;
+        mDisplayHeight = metrics.heightPixels;
+    }
+
+    static BraveShieldsPopupGeometry create(Activity activity) {
+        return new BraveShieldsPopupGeometry(activity.getResources().getConfiguration(),
+                activity.getResources().getDisplayMetrics());
+    }
+
+    /**
+     * @return the current visible display frame of the window of {@code activity}.
+     */
+    static Rect getVisibleDisplayFrame(Activity activity) {
+        Rect visibleDisplayFrame = new Rect();
+        activity.getWindow().getDecorView().getWindowVisibleDisplayFrame(visibleDisplayFrame);
+        return visibleDisplayFrame;
+    }
+
+    /**
+     * @return whether this geometry was read in {@code configuration}.
+     */
+    boolean isFor(Configuration configuration) {
+        return mConfiguration.diff(configuration) == 0;
+    }
+
+    int getPopupWidth() {
+        return (int) (mDisplayWidth * POPUP_WIDTH_RATIO);
+    }
+
+    /**
+     * @return the Y of the anchor used when the popup is opened from the hardware menu button,
+     * so that its bottom overlaps the keyboard instead of starting above it.
+     */
+    int getHardwareMenuAnchorY(Rect visibleDisplayFrame) {
+        return mDisplayHeight - Math.max(0, visibleDisplayFrame.top);
+    }
+}
@@ -5,18 +5,15 @@
 
 package org.chromium.chrome.browser.sync;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import org.chromium.base.Log;
 import org.chromium.base.ThreadUtils;
 import org.chromium.base.annotations.CalledByNative;
 import org.chromium.base.annotations.JNINamespace;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 @JNINamespace("chrome::android")
@@ -68,14 +65,20 @@ public class BraveSyncDevices {
      * Listener for the devices syncchain changes.
      */
     public interface DeviceInfoChangedListener {
-        // Invoked when the device info has changed.
-        public void deviceInfoChanged();
+        // Invoked when the device info has changed, with the devices that changed since the
+        // previous notification.
+        public void deviceInfoChanged(DeviceListDelta delta);
     }
 
     // Sync state changes more often than listeners are added/removed, so using CopyOnWrite.
     private final List<DeviceInfoChangedListener> mDeviceInfoListeners =
             new CopyOnWriteArrayList<DeviceInfoChangedListener>();
 
+    // Last known devices by guid, in the order native returned them. Only kept up to date
+    // while there are listeners, otherwise it is read again on the next request.
+    private final Map<String, SyncDeviceInfo> mDevices = new LinkedHashMap<>();
+    private boolean mDevicesUpToDate;
+
     public void addDeviceInfoChangedListener(DeviceInfoChangedListener listener) {
         ThreadUtils.assertOnUiThread();
         mDeviceInfoListeners.add(listener);
@@ -92,47 +95,99 @@ public class BraveSyncDevices {
      */
     @CalledByNative
     protected void deviceInfoChanged() {
+        if (mDeviceInfoListeners.isEmpty()) {
+            mDevicesUpToDate = false;
+            return;
+        }
+        DeviceListDelta delta = updateDevices();
+        if (delta.isEmpty()) {
+            return;
+        }
         for (DeviceInfoChangedListener listener : mDeviceInfoListeners) {
-            listener.deviceInfoChanged();
+            listener.deviceInfoChanged(delta);
         }
     }
 
     public class SyncDeviceInfo {
+        public String mGuid;
         public String mName;
         public boolean mIsCurrentDevice;
         public String mType;
         public Date mLastUpdatedTimestamp;
+
+        boolean hasSameContents(SyncDeviceInfo other) {
+            return mName.equals(other.mName) && mIsCurrentDevice == other.mIsCurrentDevice
+                    && mType.equals(other.mType)
+                    && mLastUpdatedTimestamp.equals(other.mLastUpdatedTimestamp);
+        }
+    }
+
+    /**
+     * Devices added, removed and changed between two reads of the device list.
+     */
+    public static class DeviceListDelta {
+        public final List<SyncDeviceInfo> mAdded = new ArrayList<>();
+        // Position of each of mAdded in the new list, in ascending order.
+        public final List<Integer> mAddedPositions = new ArrayList<>();
+        public final List<SyncDeviceInfo> mRemoved = new ArrayList<>();
+        public final List<SyncDeviceInfo> mChanged = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return mAdded.isEmpty() && mRemoved.isEmpty() && mChanged.isEmpty();
+        }
     }
 
     public ArrayList<SyncDeviceInfo> GetSyncDeviceList() {
         ArrayList<SyncDeviceInfo> deviceList = new ArrayList<SyncDeviceInfo>();
-        String json = nativeGetSyncDeviceListJson(mNativeBraveSyncDevicesAndroid);
-        // Add root element to make it real JSON, otherwise getJSONArray cannot parse it
-        json = "{\"devices\":" + json + "}";
-        try {
-            JSONObject result = new JSONObject(json);
-            JSONArray devices = result.getJSONArray("devices");
-            Log.i(TAG, "GetSyncDeviceList devices length is " + devices.length());
-            for (int i = 0; i < devices.length(); i++) {
-                SyncDeviceInfo deviceInfo = new SyncDeviceInfo();
-                JSONObject device = devices.getJSONObject(i);
-                deviceInfo.mName = device.getString("name");
-                deviceInfo.mIsCurrentDevice = device.getBoolean("isCurrentDevice");
-                deviceInfo.mType = device.getString("type");
-                long lastUpdatedTimestamp = device.getLong("lastUpdatedTimestamp");
-                deviceInfo.mLastUpdatedTimestamp = new Date(lastUpdatedTimestamp);
-                deviceList.add(deviceInfo);
+        nativeGetSyncDeviceList(mNativeBraveSyncDevicesAndroid, deviceList);
+        return deviceList;
+    }
+
+    /**
+     * @return the last known devices, read from native only if they may have changed since.
+     */
+    public List<SyncDeviceInfo> getSyncDevices() {
+        ThreadUtils.assertOnUiThread();
+        if (!mDevicesUpToDate) {
+            updateDevices();
+        }
+        return new ArrayList<SyncDeviceInfo>(mDevices.values());
+    }
+
+    private DeviceListDelta updateDevices() {
+        DeviceListDelta delta = new DeviceListDelta();
+        Map<String, SyncDeviceInfo> previousDevices = new LinkedHashMap<>(mDevices);
+        mDevices.clear();
+        for (SyncDeviceInfo device : GetSyncDeviceList()) {
+            SyncDeviceInfo previous = previousDevices.remove(device.mGuid);
+            if (previous == null) {
+                delta.mAdded.add(device);
+                delta.mAddedPositions.add(mDevices.size());
+            } else if (!previous.hasSameContents(device)) {
+                delta.mChanged.add(device);
             }
-        } catch (JSONException e) {
-            Log.e(TAG, "GetDeviceNameByObjectId JSONException error " + e);
-        } catch (IllegalStateException e) {
-            Log.e(TAG, "GetDeviceNameByObjectId IllegalStateException error " + e);
+            mDevices.put(device.mGuid, device);
         }
-        return deviceList;
+        delta.mRemoved.addAll(previousDevices.values());
+        mDevicesUpToDate = true;
+        return delta;
+    }
+
+    @CalledByNative
+    private void addSyncDeviceInfo(List<SyncDeviceInfo> deviceList, String guid, String name,
+            boolean isCurrentDevice, String type, long lastUpdatedTimestamp) {
+        SyncDeviceInfo deviceInfo = new SyncDeviceInfo();
+        deviceInfo.mGuid = guid;
+        deviceInfo.mName = name;
+        deviceInfo.mIsCurrentDevice = isCurrentDevice;
+        deviceInfo.mType = type;
+        deviceInfo.mLastUpdatedTimestamp = new Date(lastUpdatedTimestamp);
+        deviceList.add(deviceInfo);
     }
 
     private native void nativeInit();
     private native void nativeDestroy(long nativeBraveSyncDevicesAndroid);
 
-    private native String nativeGetSyncDeviceListJson(long nativeBraveSyncDevicesAndroid);
+    private native void nativeGetSyncDeviceList(
+            long nativeBraveSyncDevicesAndroid, List<SyncDeviceInfo> deviceList);
 }
@@ -29,7 +29,6 @@ import androidx.appcompat.app.AlertDialog;
 import org.chromium.base.ApiCompatibilityUtils;
 import org.chromium.base.ContextUtils;
 import org.chromium.base.MathUtils;
-import org.chromium.base.task.AsyncTask;
 import org.chromium.base.ThreadUtils;
 import org.chromium.base.Log;
 import org.chromium.chrome.R;
@@ -73,10 +72,12 @@ import org.chromium.ui.interpolators.BakedBezierInterpolator;
 import org.chromium.ui.widget.Toast;
 import org.chromium.chrome.browser.onboarding.SearchActivity;
 import org.chromium.chrome.browser.BraveAdsNativeHelper;
-import org.chromium.chrome.browser.local_database.DatabaseHelper;
+import org.chromium.chrome.browser.local_database.BraveDbRepository;
 import org.chromium.chrome.browser.local_database.BraveStatsTable;
 import org.chromium.chrome.browser.local_database.SavedBandwidthTable;
+import org.chromium.chrome.browser.brave_stats.BraveStatsAggregator;
 import org.chromium.chrome.browser.brave_stats.BraveStatsUtil;
+import org.chromium.chrome.browser.brave_stats.UrlHostCache;
 import org.chromium.chrome.browser.settings.BraveSearchEngineUtils;
 import org.chromium.chrome.browser.notifications.retention.RetentionNotificationUtil;
 import org.chromium.chrome.browser.ntp.BraveNewTabPageLayout;
@@ -95,7 +96,6 @@ public abstract class BraveToolbarLayout extends ToolbarLayout implements OnClic
   private static final long MB_10 = 10000000;
   private static final long MINUTES_10 = 10 * 60 * 1000;
 
-  private DatabaseHelper mDatabaseHelper = DatabaseHelper.getInstance();
 
   private ImageButton mBraveShieldsButton;
   private ImageButton mBraveRewardsButton;
@@ -262,6 +262,9 @@ public abstract class BraveToolbarLayout extends ToolbarLayout implements OnClic
       updateShieldsLayoutBackground(!(mRewardsLayout != null && mRewardsLayout.getVisibility() == View.VISIBLE));
       mShieldsLayout.setVisibility(View.VISIBLE);
     }
+    if (mBraveShieldsHandler != null) {
+      mBraveShieldsHandler.preInflate();
+    }
     mBraveRewardsNativeWorker = BraveRewardsNativeWorker.getInstance();
     if (mBraveRewardsNativeWorker != null) {
       mBraveRewardsNativeWorker.AddObserver(this);
@@ -289,6 +292,7 @@ public abstract class BraveToolbarLayout extends ToolbarLayout implements OnClic
           updateBraveShieldsButtonState(tab);
         }
         mBraveShieldsHandler.clearBraveShieldsCount(tab.getId());
+        BraveStatsAggregator.onPageLoadStarted(tab.getId(), url);
         dismissShieldsTooltip();
       }
 
@@ -298,10 +302,9 @@ public abstract class BraveToolbarLayout extends ToolbarLayout implements OnClic
           mBraveShieldsHandler.updateHost(url);
           updateBraveShieldsButtonState(tab);
 
-          Profile mProfile = Profile.getLastUsedRegularProfile();
-          long trackersBlockedCount = BravePrefServiceBridge.getInstance().getTrackersBlockedCount(mProfile);
-          long adsBlockedCount = BravePrefServiceBridge.getInstance().getAdsBlockedCount(mProfile);
-          long dataSaved = BravePrefServiceBridge.getInstance().getDataSaved(mProfile);
+          long trackersBlockedCount = BraveStatsAggregator.getTrackersBlockedCount();
+          long adsBlockedCount = BraveStatsAggregator.getAdsBlockedCount();
+          long dataSaved = BraveStatsAggregator.getDataSaved();
           long estimatedMillisecondsSaved = (trackersBlockedCount + adsBlockedCount) * BraveNewTabPageLayout.MILLISECONDS_PER_ITEM;
 
           if (!OnboardingPrefManager.getInstance().isAdsTrackersNotificationStarted()
@@ -338,6 +341,7 @@ public abstract class BraveToolbarLayout extends ToolbarLayout implements OnClic
       @Override
       public void onDestroyed(Tab tab) {
         mBraveShieldsHandler.removeStat(tab.getId());
+        BraveStatsAggregator.onTabDestroyed(tab.getId());
       }
     };
 
@@ -360,49 +364,21 @@ public abstract class BraveToolbarLayout extends ToolbarLayout implements OnClic
   }
 
   private void addSavedBandwidthToDb(long savings) {
-    new AsyncTask<Void>() {
-      @Override
-      protected Void doInBackground() {
-        try {
-          SavedBandwidthTable savedBandwidthTable = new SavedBandwidthTable(savings, BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
-          long rowId = mDatabaseHelper.insertSavedBandwidth(savedBandwidthTable);
-        } catch (Exception e) {
-          // Do nothing if url is invalid.
-          // Just return w/o showing shields popup.
-          return null;
-        }
-        return null;
-      }
-      @Override
-      protected void onPostExecute(Void result) {
-        assert ThreadUtils.runningOnUiThread();
-        if (isCancelled()) return;
-      }
-    } .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    BraveDbRepository.getInstance().write(helper -> {
+      SavedBandwidthTable savedBandwidthTable = new SavedBandwidthTable(savings, BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
+      return helper.insertSavedBandwidth(savedBandwidthTable);
+    }, null);
   }
 
   private void addStatsToDb(String statType, String statSite, String url) {
-    new AsyncTask<Void>() {
-      @Override
-      protected Void doInBackground() {
-        try {
-          URL urlObject = new URL(url);
-          URL siteObject = new URL(statSite);
-          BraveStatsTable braveStatsTable = new BraveStatsTable(url, urlObject.getHost(), statType, statSite, siteObject.getHost(), BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
-          long rowId = mDatabaseHelper.insertStats(braveStatsTable);
-        } catch (Exception e) {
-          // Do nothing if url is invalid.
-          // Just return w/o showing shields popup.
-          return null;
-        }
-        return null;
-      }
-      @Override
-      protected void onPostExecute(Void result) {
-        assert ThreadUtils.runningOnUiThread();
-        if (isCancelled()) return;
-      }
-    } .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    String domain = UrlHostCache.getHost(url);
+    String statSiteDomain = UrlHostCache.getHost(statSite);
+    // Do nothing if url is invalid.
+    if (domain == null || statSiteDomain == null) return;
+    BraveDbRepository.getInstance().write(helper -> {
+      BraveStatsTable braveStatsTable = new BraveStatsTable(url, domain, statType, statSite, statSiteDomain, BraveStatsUtil.getCalculatedDate("yyyy-MM-dd", 0));
+      return helper.insertStats(braveStatsTable);
+    }, null);
   }
 
   public void hideRewardsOnboardingIcon() {
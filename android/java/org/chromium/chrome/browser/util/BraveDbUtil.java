@@ -7,7 +7,7 @@
 
 package org.chromium.chrome.browser.util;
 
-import android.app.Dialog;
+import android.app.AlertDialog;
 import android.content.Context;
 import android.os.Environment;
 import android.text.TextUtils;
@@ -15,15 +15,21 @@ import android.widget.Toast;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.lang.SecurityException;
+import java.nio.channels.FileChannel;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
 
 import org.chromium.base.ContextUtils;
-import org.chromium.base.FileUtils;
 import org.chromium.base.Log;
+import org.chromium.base.ThreadUtils;
+import org.chromium.base.task.AsyncTask;
 
 public class BraveDbUtil {
     private static final String TAG = "BraveDbUtil";
@@ -33,6 +39,18 @@ public class BraveDbUtil {
     private static final String PREF_PERFORM_DB_EXPORT_ON_START = "perform_db_export_on_start";
     private static final String PREF_PERFORM_DB_IMPORT_ON_START = "perform_db_import_on_start";
     private static final String PREF_DB_IMPORT_FILE = "db_import_file";
+    private static final String IMPORT_STAGING_SUFFIX = ".import";
+    // The database file itself must come first.
+    private static final String[] DB_FILE_SUFFIXES = {"", "-journal", "-wal"};
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 3;
+    private static final long COPY_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Receives the copy progress on the background thread.
+     */
+    private interface ProgressListener {
+        void onProgress(int percent);
+    }
 
     private String mRewardsSrc;
     private String mRewardsDst;
@@ -50,7 +68,7 @@ public class BraveDbUtil {
         return sInstance;
     }
 
-    public void ExportRewardsDb(Dialog dlg) {
+    public void ExportRewardsDb(AlertDialog dlg, Runnable onDone) {
         Context context = ContextUtils.getApplicationContext();
         mRewardsSrc = context.getApplicationInfo().dataDir + File.separator + REWARDS_DB_SRC_DIR + File.separator
                 + PUBLISHER_INFO_DB;
@@ -61,11 +79,10 @@ public class BraveDbUtil {
         SimpleDateFormat dateFormat = new SimpleDateFormat("-yyyy-MM-dd-HHmmss");
         mRewardsDst = mRewardsDstDir + File.separator + PUBLISHER_INFO_DB + dateFormat.format(new Date());
 
-        copyRewardsDbThread(dlg, false);
+        copyRewardsDb(dlg, false, onDone);
     }
 
-    public void ImportRewardsDb(Dialog dlg, String fileToImport) {
-        Context context = ContextUtils.getApplicationContext();
+    public void ImportRewardsDb(AlertDialog dlg, String fileToImport, Runnable onDone) {
         mRewardsDst = importDestinationPath();
 
         mRewardsSrc = fileToImport.isEmpty()
@@ -75,61 +92,220 @@ public class BraveDbUtil {
 
         mRewardsDstDir = "";
 
-        copyRewardsDbThread(dlg, true);
+        copyRewardsDb(dlg, true);
     }
 
-    private void copyRewardsDbThread(Dialog dlg, boolean isImport) {
+    /**
+     * Copies the database on a background thread. The dialog shows the progress and is
+     * dismissed when done, then pending db operation requests are cleaned up and |onDone| is
+     * run on the UI thread. The rewards service opens the database as soon as native is up,
+     * so the caller must hold native startup until |onDone|.
+     */
+    private void copyRewardsDb(AlertDialog dlg, boolean isImport, Runnable onDone) {
         if (dlg != null)
             dlg.show();
 
-        if (isImport) {
-            File file = new File(mRewardsDst);
-            boolean file_deleted = file.delete();
-            File file_journal = new File(mRewardsDst + "-journal");
-            boolean file_journal_deleted = file_journal.delete();
+        final String src = mRewardsSrc;
+        final String dst = mRewardsDst;
+        final String dstDir = mRewardsDstDir;
+        final String dlgMessage = isImport ? "Importing database, please wait..."
+                                           : "Exporting database, please wait...";
+        final ProgressListener progressListener = percent -> ThreadUtils.postOnUiThread(() -> {
+            if (dlg != null && dlg.isShowing()) {
+                dlg.setMessage(dlgMessage + " " + percent + "%");
+            }
+        });
+
+        new AsyncTask<String>() {
+            @Override
+            protected String doInBackground() {
+                // Create dest dir if necessary
+                if (!TextUtils.isEmpty(dstDir) && !createDstDir(dstDir)) {
+                    return "Failed to create destination directory for database operation";
+                }
+                if (isImport) {
+                    return importDb(src, dst, progressListener);
+                }
+                return exportDb(src, dst, progressListener);
+            }
+
+            @Override
+            protected void onPostExecute(String erroMsg) {
+                // Update UI
+                final String msg = (!TextUtils.isEmpty(erroMsg)) ? erroMsg
+                        : "Database successfully " + (isImport ? "imported" : "exported");
+                if (dlg != null && dlg.isShowing())
+                    dlg.dismiss();
+                Context context = ContextUtils.getApplicationContext();
+                Toast.makeText(context, msg, Toast.LENGTH_LONG).show();
+                if (isImport) {
+                    File file = new File(src);
+                    file.delete();
+                }
+                cleanUpDbOperationRequest();
+                onDone.run();
+            }
+        }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Copies a consistent snapshot of |src| and its journal to |dst|.
+     * @return error message, or empty string on success.
+     */
+    private String exportDb(String src, String dst, ProgressListener listener) {
+        if (!new File(src).exists()) {
+            return "Database file not found";
         }
+        if (!copySnapshot(src, dst, listener)) {
+            deleteDbFiles(dst);
+            return "Failed to copy database file";
+        }
+        return "";
+    }
 
-        String erroMsg = "";
+    /**
+     * Stages a verified copy of |src| and its journal next to |dst|, then swaps it in with
+     * renames, so |dst| is never left half written.
+     * @return error message, or empty string on success.
+     */
+    private String importDb(String src, String dst, ProgressListener listener) {
+        if (!new File(src).exists()) {
+            return "Database file to import not found";
+        }
+        String staged = dst + IMPORT_STAGING_SUFFIX;
+        deleteDbFiles(staged);
+        if (!copySnapshot(src, staged, listener)) {
+            deleteDbFiles(staged);
+            return "Failed to copy database file";
+        }
 
-        // Create dest dir if necessary
-        if (!TextUtils.isEmpty(mRewardsDstDir)) {
-            if (!createDstDir(mRewardsDstDir)) {
-                erroMsg = "Failed to create destination directory for database operation";
+        // A journal left from the old database must not be applied to the new one.
+        for (String suffix : DB_FILE_SUFFIXES) {
+            if (!suffix.isEmpty()) new File(dst + suffix).delete();
+        }
+        for (String suffix : DB_FILE_SUFFIXES) {
+            File stagedFile = new File(staged + suffix);
+            if (stagedFile.exists() && !stagedFile.renameTo(new File(dst + suffix))) {
+                deleteDbFiles(staged);
+                return "Failed to replace database file";
             }
         }
+        return "";
+    }
+
+    /**
+     * Copies the database and its journal files. The copy is retried if any of the source
+     * files changed while it was being copied, and each copied file is verified against the
+     * checksum of its source.
+     */
+    private boolean copySnapshot(String src, String dst, ProgressListener listener) {
+        for (int attempt = 0; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++) {
+            List<File> srcFiles = new ArrayList<>();
+            for (String suffix : DB_FILE_SUFFIXES) {
+                File file = new File(src + suffix);
+                if (file.exists()) srcFiles.add(file);
+            }
+            long totalBytes = 0;
+            long[] stamps = new long[srcFiles.size() * 2];
+            for (int i = 0; i < srcFiles.size(); i++) {
+                File file = srcFiles.get(i);
+                totalBytes += file.length();
+                stamps[2 * i] = file.length();
+                stamps[2 * i + 1] = file.lastModified();
+            }
+
+            deleteDbFiles(dst);
+            long copiedBytes = 0;
+            for (File srcFile : srcFiles) {
+                String suffix = srcFile.getPath().substring(src.length());
+                File dstFile = new File(dst + suffix);
+                if (!copyFile(srcFile, dstFile, copiedBytes, totalBytes, listener)
+                        || !verifyCopy(srcFile, dstFile)) {
+                    return false;
+                }
+                copiedBytes += dstFile.length();
+            }
 
-        // No errors so far: copy the file
-        if (TextUtils.isEmpty(erroMsg)) {
-            boolean succeeded = copyFile(mRewardsSrc, mRewardsDst);
-            if (!succeeded) {
-                erroMsg = "Failed to copy database file";
+            boolean changed = false;
+            for (int i = 0; i < srcFiles.size(); i++) {
+                File file = srcFiles.get(i);
+                changed |= stamps[2 * i] != file.length()
+                        || stamps[2 * i + 1] != file.lastModified();
             }
+            for (String suffix : DB_FILE_SUFFIXES) {
+                // A journal that appeared during the copy means a write was in progress.
+                File file = new File(src + suffix);
+                changed |= file.exists() && !srcFiles.contains(file);
+            }
+            if (!changed) return true;
+            Log.w(TAG, "Database changed while copying, retrying");
         }
+        Log.e(TAG, "Failed to take a consistent database snapshot of " + src);
+        return false;
+    }
 
-        // Update UI
-        final String msg = (!TextUtils.isEmpty(erroMsg)) ? erroMsg
-                : "Database successfully " + (isImport ? "imported" : "exported");
-        if (dlg != null)
-            dlg.dismiss();
-        Context context = ContextUtils.getApplicationContext();
-        Toast.makeText(context, msg, Toast.LENGTH_LONG).show();
-        if (isImport) {
-            File file = new File(mRewardsSrc);
-            file.delete();
+    private boolean copyFile(File src, File dst, long copiedBytes, long totalBytes,
+            ProgressListener listener) {
+        try (FileInputStream in = new FileInputStream(src);
+                FileOutputStream out = new FileOutputStream(dst)) {
+            FileChannel inChannel = in.getChannel();
+            FileChannel outChannel = out.getChannel();
+            long size = inChannel.size();
+            long position = 0;
+            int lastPercent = -1;
+            while (position < size) {
+                long transferred = inChannel.transferTo(
+                        position, Math.min(COPY_CHUNK_SIZE, size - position), outChannel);
+                if (transferred <= 0) {
+                    // The source shrank while being copied, the snapshot is not usable.
+                    Log.e(TAG, "Database file " + src + " truncated while copying");
+                    return false;
+                }
+                position += transferred;
+                int percent = totalBytes > 0
+                        ? (int) Math.min(100, (copiedBytes + position) * 100 / totalBytes) : 100;
+                if (percent != lastPercent) {
+                    listener.onProgress(percent);
+                    lastPercent = percent;
+                }
+            }
+            out.getFD().sync();
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Error on copying database file (" + src + " -> " + dst +  "): " + e);
         }
+        return false;
     }
 
-    private boolean copyFile(String src, String dst) {
-        boolean succeeded = false;
+    /**
+     * @return whether |dst| has the same checksum as |src|. A file that can't be read fails
+     * the verification.
+     */
+    private static boolean verifyCopy(File src, File dst) {
         try {
-            InputStream in = new FileInputStream(src);
-            FileUtils.copyStreamToFile(in, new File(dst));
-            succeeded = true;
-            in.close();
+            return checksum(src) == checksum(dst);
         } catch (IOException e) {
-            Log.e(TAG, "Error on copying database file (" + src + " -> " + dst +  "): " + e);
+            Log.e(TAG, "Error on verifying database copy " + dst + ": " + e);
+            return false;
+        }
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void deleteDbFiles(String path) {
+        for (String suffix : DB_FILE_SUFFIXES) {
+            new File(path + suffix).delete();
         }
-        return succeeded;
     }
 
     private boolean createDstDir(String dir) {
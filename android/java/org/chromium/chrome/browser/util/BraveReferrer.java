@@ -52,6 +52,7 @@ public class BraveReferrer implements InstallReferrerStateListener {
 
         @Override
         public void run() {
+            long start = BraveTraceRecorder.begin();
             promoCodeFilePath = mContext.getApplicationInfo().dataDir +
                     File.separator + APP_CHROME_DIR + File.separator + PROMO_CODE_FILE_NAME;
             SharedPreferences sharedPref = ContextUtils.getAppSharedPreferences();
@@ -66,6 +67,7 @@ public class BraveReferrer implements InstallReferrerStateListener {
                     Log.e(TAG, "Unable to start connection for referrer client: " + e);
                 }
             }
+            BraveTraceRecorder.end("BraveReferrer.initReferrer", start);
         }
     }
 
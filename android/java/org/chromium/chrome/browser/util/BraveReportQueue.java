@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package org.chromium.chrome.browser.util;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import org.chromium.base.ContextUtils;
+import org.chromium.base.Log;
+import org.chromium.base.ThreadUtils;
+import org.chromium.base.task.PostTask;
+import org.chromium.base.task.SequencedTaskRunner;
+import org.chromium.base.task.TaskTraits;
+import org.chromium.chrome.browser.ntp_background_images.NTPBackgroundImagesBridge;
+import org.chromium.chrome.browser.profiles.Profile;
+import org.chromium.net.ConnectionType;
+import org.chromium.net.NetworkChangeNotifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Persistent queue for outbound reports (webcompat, rate feedback).
+ *
+ * Reports are written to disk first and sent later from a sequenced background task
+ * runner. All pending reports are sent in one pass over a keep-alive connection, so a
+ * batch pays for a single TLS handshake. Transient failures are retried with jittered
+ * exponential backoff. A new report or the device coming back online triggers an attempt
+ * right away instead of waiting out the backoff, and a successful send resets it.
+ */
+public class BraveReportQueue implements NetworkChangeNotifier.ConnectionTypeObserver {
+    private static final String TAG = "BraveReportQueue";
+    private static final String REPORTS_DIR = "brave_reports";
+    private static final String REPORT_EXTENSION = ".json";
+    private static final String KEY_URL = "url";
+    private static final String KEY_PAYLOAD = "payload";
+    private static final String KEY_API_KEY = "api_key";
+
+    private static final int CONNECT_TIMEOUT_MS = 15 * 1000;
+    private static final int READ_TIMEOUT_MS = 20 * 1000;
+    private static final long INITIAL_BACKOFF_MS = 30 * 1000;
+    private static final long MAX_BACKOFF_MS = 6 * 60 * 60 * 1000;
+    private static final int MAX_PENDING_REPORTS = 100;
+
+    // Results of a single send attempt.
+    private static final int SENT = 0;
+    private static final int DROPPED = 1;
+    private static final int RETRY = 2;
+
+    private static BraveReportQueue sInstance;
+
+    private final File mDirectory;
+    private final SequencedTaskRunner mTaskRunner;
+    private final Random mRandom = new Random();
+    private volatile String mApiKey;
+    private int mReportCounter;
+
+    // Accessed on mTaskRunner only.
+    private int mFailedAttempts;
+    private boolean mRetryScheduled;
+    // Incremented to drop a scheduled retry that an earlier attempt made redundant.
+    private int mRetryGeneration;
+
+    public static BraveReportQueue getInstance() {
+        ThreadUtils.assertOnUiThread();
+        if (sInstance != null) return sInstance;
+        sInstance = new BraveReportQueue(
+                new File(ContextUtils.getApplicationContext().getFilesDir(), REPORTS_DIR), null);
+        if (NetworkChangeNotifier.isInitialized()) {
+            NetworkChangeNotifier.addConnectionTypeObserver(sInstance);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    BraveReportQueue(File directory, String apiKey) {
+        mDirectory = directory;
+        mApiKey = apiKey;
+        mTaskRunner = PostTask.createSequencedTaskRunner(TaskTraits.BEST_EFFORT_MAY_BLOCK);
+    }
+
+    /**
+     * Stores a report for {@code url} and tries to send it. The referral api key is added to
+     * the payload right before sending. Must be called on the UI thread.
+     */
+    public void enqueue(String url, JSONObject payload) {
+        ensureApiKey();
+        String name = String.format(Locale.US, "%013d-%04d%s", System.currentTimeMillis(),
+                mReportCounter++ % 10000, REPORT_EXTENSION);
+        mTaskRunner.postTask(() -> {
+            writeReport(name, url, payload);
+            sendPendingReportsNow();
+        });
+    }
+
+    /**
+     * Sends reports left over from previous sessions, if any. Must be called on the UI thread.
+     */
+    public void flush() {
+        ensureApiKey();
+        mTaskRunner.postTask(this::sendPendingReportsAndReschedule);
+    }
+
+    @Override
+    public void onConnectionTypeChanged(int connectionType) {
+        if (connectionType == ConnectionType.CONNECTION_NONE) return;
+        mTaskRunner.postTask(() -> {
+            // Failures while offline say nothing about the server, start the backoff over.
+            mFailedAttempts = 0;
+            sendPendingReportsNow();
+        });
+    }
+
+    private void ensureApiKey() {
+        ThreadUtils.assertOnUiThread();
+        if (mApiKey != null) return;
+        // Reading the key goes through JNI, so do it once per process.
+        mApiKey = NTPBackgroundImagesBridge.getInstance(Profile.getLastUsedRegularProfile())
+                          .getReferralApiKey();
+    }
+
+    @VisibleForTesting
+    void writeReport(String name, String url, JSONObject payload) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.e(TAG, "Failed to create reports directory");
+            return;
+        }
+        File[] pending = listReports();
+        if (pending.length >= MAX_PENDING_REPORTS) {
+            // Keep the queue bounded when the device stays offline, oldest report goes first.
+            pending[0].delete();
+        }
+
+        File report = new File(mDirectory, name);
+        File tmp = new File(mDirectory, name + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            JSONObject record = new JSONObject();
+            record.put(KEY_URL, url);
+            record.put(KEY_PAYLOAD, payload);
+            out.write(record.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Failed to store report: " + e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(report)) {
+            Log.e(TAG, "Failed to store report " + name);
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Tries to send right away, even if a retry is scheduled. The scheduled retry is dropped,
+     * a new one is scheduled if this attempt fails.
+     */
+    private void sendPendingReportsNow() {
+        if (mRetryScheduled) {
+            mRetryScheduled = false;
+            mRetryGeneration++;
+        }
+        sendPendingReportsAndReschedule();
+    }
+
+    private void sendPendingReportsAndReschedule() {
+        if (mRetryScheduled) return;
+        if (sendPendingReports()) {
+            mFailedAttempts = 0;
+            return;
+        }
+        if (!isOnline()) {
+            // onConnectionTypeChanged will pick it up.
+            return;
+        }
+        long backoffMs = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(mFailedAttempts, 20));
+        mFailedAttempts++;
+        // Pick the delay between half and the whole backoff, so clients don't retry in lockstep.
+        long delayMs = backoffMs / 2 + (long) (mRandom.nextDouble() * (backoffMs / 2));
+        mRetryScheduled = true;
+        int generation = mRetryGeneration;
+        mTaskRunner.postDelayedTask(() -> {
+            if (generation != mRetryGeneration) return;
+            mRetryScheduled = false;
+            sendPendingReportsAndReschedule();
+        }, delayMs);
+    }
+
+    /**
+     * Sends all stored reports in order.
+     * @return true if the queue is empty afterwards.
+     */
+    @VisibleForTesting
+    boolean sendPendingReports() {
+        if (!isOnline()) return getPendingReportCount() == 0;
+        for (File report : listReports()) {
+            int result = sendReport(report);
+            if (result == RETRY) return false;
+            if (!report.delete()) {
+                Log.e(TAG, "Failed to delete report " + report.getName());
+            }
+        }
+        return true;
+    }
+
+    @VisibleForTesting
+    int getPendingReportCount() {
+        return listReports().length;
+    }
+
+    private int sendReport(File report) {
+        String url;
+        byte[] body;
+        try (InputStream in = new FileInputStream(report)) {
+            JSONObject record = new JSONObject(
+                    new String(readFully(in), StandardCharsets.UTF_8));
+            url = record.getString(KEY_URL);
+            JSONObject payload = record.getJSONObject(KEY_PAYLOAD);
+            if (mApiKey != null) payload.put(KEY_API_KEY, mApiKey);
+            body = payload.toString().getBytes(StandardCharsets.UTF_8);
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Dropping unreadable report " + report.getName() + ": " + e);
+            return DROPPED;
+        }
+
+        HttpURLConnection urlConnection = null;
+        try {
+            urlConnection = (HttpURLConnection) new URL(url).openConnection();
+            urlConnection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            urlConnection.setReadTimeout(READ_TIMEOUT_MS);
+            urlConnection.setDoOutput(true);
+            urlConnection.setRequestMethod("POST");
+            urlConnection.setUseCaches(false);
+            urlConnection.setFixedLengthStreamingMode(body.length);
+            urlConnection.setRequestProperty("Content-Type", "application/json");
+
+            try (OutputStream out = urlConnection.getOutputStream()) {
+                out.write(body);
+            }
+
+            int responseCode = urlConnection.getResponseCode();
+            // Drain and close the response so the connection goes back to the keep-alive pool
+            // and the next report reuses it. disconnect() would close the socket instead.
+            InputStream in = responseCode < HttpURLConnection.HTTP_BAD_REQUEST
+                    ? urlConnection.getInputStream()
+                    : urlConnection.getErrorStream();
+            if (in != null) {
+                readFully(in);
+                in.close();
+            }
+
+            if (responseCode >= 200 && responseCode < 300) return SENT;
+            Log.e(TAG, "Report " + report.getName() + " rejected: " + responseCode);
+            if (responseCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT || responseCode == 429
+                    || responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                return RETRY;
+            }
+            // Other client errors won't go away by retrying.
+            return DROPPED;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to send report " + report.getName() + ": " + e);
+            if (urlConnection != null) urlConnection.disconnect();
+            return RETRY;
+        }
+    }
+
+    private File[] listReports() {
+        File[] reports = mDirectory.listFiles(
+                (dir, name) -> name.endsWith(REPORT_EXTENSION));
+        if (reports == null) return new File[0];
+        // Names start with a zero padded timestamp, so this is the enqueue order.
+        Arrays.sort(reports);
+        return reports;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isOnline() {
+        return !NetworkChangeNotifier.isInitialized() || NetworkChangeNotifier.isOnline();
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package org.chromium.chrome.browser.util;
+
+import android.os.Process;
+
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records named spans with monotonic timestamps into a fixed size lock-free ring buffer.
+ * Recording a span costs a couple of array writes and one atomic increment, so it is
+ * enabled in release builds too. The oldest spans are overwritten once the buffer is full.
+ *
+ * Usage:
+ *     long start = BraveTraceRecorder.begin();
+ *     ...
+ *     BraveTraceRecorder.end("BraveActivity.initializeState", start);
+ */
+public final class BraveTraceRecorder {
+    private static final int CAPACITY = 1024; // Must be a power of two.
+    private static final int MASK = CAPACITY - 1;
+
+    private static final AtomicLong sNextSlot = new AtomicLong();
+    // Per-slot sequence numbers. A slot holds a complete span only when its sequence
+    // equals the index the span was written with; -1 while a writer is in the slot.
+    private static final AtomicLongArray sSequences = new AtomicLongArray(CAPACITY);
+    private static final String[] sNames = new String[CAPACITY];
+    private static final long[] sStartNanos = new long[CAPACITY];
+    private static final long[] sDurationNanos = new long[CAPACITY];
+    private static final long[] sThreadIds = new long[CAPACITY];
+
+    // Latency histograms of traced methods. Bucket i counts calls that took
+    // [2^i, 2^(i+1)) microseconds, the first bucket also includes faster calls.
+    private static final int HISTOGRAM_BUCKETS = 24;
+    private static final ConcurrentHashMap<String, AtomicLongArray> sMethodHistograms =
+            new ConcurrentHashMap<>();
+
+    private static volatile boolean sEnabled = true;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            sSequences.set(i, -1);
+        }
+    }
+
+    /**
+     * A single finished span.
+     */
+    public static class Span {
+        public final String mName;
+        public final long mStartNanos;
+        public final long mDurationNanos;
+        public final long mThreadId;
+
+        Span(String name, long startNanos, long durationNanos, long threadId) {
+            mName = name;
+            mStartNanos = startNanos;
+            mDurationNanos = durationNanos;
+            mThreadId = threadId;
+        }
+    }
+
+    private BraveTraceRecorder() {}
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /**
+     * @return a monotonic timestamp to pass to {@link #end(String, long)}.
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a span that started at {@code startNanos} and ends now.
+     * @return duration of the span in nanoseconds.
+     */
+    public static long end(String name, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        if (sEnabled) record(name, startNanos, durationNanos);
+        return durationNanos;
+    }
+
+    /**
+     * Same as {@link #end(String, long)}, and also adds the duration to the latency histogram
+     * of {@code name}. Calls to it are injected by the bytecode rewriter around methods
+     * annotated with {@link BraveTraced}.
+     */
+    public static void endMethod(String name, long startNanos) {
+        long durationNanos = end(name, startNanos);
+        if (!sEnabled) return;
+        AtomicLongArray histogram = sMethodHistograms.get(name);
+        if (histogram == null) {
+            AtomicLongArray newHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+            histogram = sMethodHistograms.putIfAbsent(name, newHistogram);
+            if (histogram == null) histogram = newHistogram;
+        }
+        long micros = Math.max(1, durationNanos / 1000);
+        int bucket = Math.min(HISTOGRAM_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        histogram.incrementAndGet(bucket);
+    }
+
+    private static void record(String name, long startNanos, long durationNanos) {
+        long index = sNextSlot.getAndIncrement();
+        int slot = (int) (index & MASK);
+        sSequences.set(slot, -1);
+        sNames[slot] = name;
+        sStartNanos[slot] = startNanos;
+        sDurationNanos[slot] = durationNanos;
+        sThreadIds[slot] = Thread.currentThread().getId();
+        sSequences.set(slot, index);
+    }
+
+    /**
+     * @return recorded spans, oldest first. Spans that are being overwritten while the
+     * snapshot is taken are skipped.
+     */
+    public static List<Span> snapshot() {
+        long next = sNextSlot.get();
+        long first = Math.max(0, next - CAPACITY);
+        List<Span> spans = new ArrayList<>((int) (next - first));
+        for (long index = first; index < next; index++) {
+            int slot = (int) (index & MASK);
+            if (sSequences.get(slot) != index) continue;
+            String name = sNames[slot];
+            long startNanos = sStartNanos[slot];
+            long durationNanos = sDurationNanos[slot];
+            long threadId = sThreadIds[slot];
+            if (sSequences.get(slot) != index) continue;
+            spans.add(new Span(name, startNanos, durationNanos, threadId));
+        }
+        return spans;
+    }
+
+    /**
+     * @return human readable list of recorded spans.
+     */
+    public static String dump() {
+        List<Span> spans = snapshot();
+        if (spans.isEmpty()) return "";
+        long origin = spans.get(0).mStartNanos;
+        for (Span span : spans) {
+            origin = Math.min(origin, span.mStartNanos);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Span span : spans) {
+            builder.append(String.format(Locale.US, "+%.1f ms %s: %.2f ms [tid %d]\n",
+                    (span.mStartNanos - origin) / 1e6, span.mName, span.mDurationNanos / 1e6,
+                    span.mThreadId));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return human readable latency histograms of traced methods.
+     */
+    public static String dumpMethodHistograms() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, AtomicLongArray> entry : new TreeMap<>(sMethodHistograms).entrySet()) {
+            AtomicLongArray histogram = entry.getValue();
+            builder.append(entry.getKey()).append(':');
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                long count = histogram.get(i);
+                if (count == 0) continue;
+                builder.append(String.format(Locale.US, " <%dus=%d", 1L << (i + 1), count));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes recorded spans to {@code file} in the Trace Event format, which can be
+     * loaded into chrome://tracing or Perfetto.
+     */
+    public static void exportTraceEventJson(File file) throws IOException {
+        List<Span> spans = snapshot();
+        int pid = Process.myPid();
+        try (Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("{\"traceEvents\":[");
+            for (int i = 0; i < spans.size(); i++) {
+                Span span = spans.get(i);
+                if (i > 0) writer.write(',');
+                writer.write(String.format(Locale.US,
+                        "{\"name\":%s,\"cat\":\"brave\",\"ph\":\"X\",\"ts\":%d,\"dur\":%d,"
+                                + "\"pid\":%d,\"tid\":%d}",
+                        JSONObject.quote(span.mName), span.mStartNanos / 1000,
+                        span.mDurationNanos / 1000, pid, span.mThreadId));
+            }
+            writer.write("],\"displayTimeUnit\":\"ms\"}");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.util;
+
+import androidx.annotation.WorkerThread;
+
+import com.airbnb.lottie.LottieAnimationView;
+import com.airbnb.lottie.LottieComposition;
+import com.airbnb.lottie.LottieCompositionFactory;
+import com.airbnb.lottie.LottieOnCompositionLoadedListener;
+import com.airbnb.lottie.LottieResult;
+
+import org.chromium.base.ContextUtils;
+import org.chromium.base.ThreadUtils;
+import org.chromium.base.task.PostTask;
+import org.chromium.base.task.TaskTraits;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide cache of parsed Lottie animations, keyed by asset name.
+ *
+ * {@link LottieAnimationView#setAnimation(String)} always loads asynchronously, even when Lottie
+ * has the composition cached, so the view is empty for its first frames and the JSON is parsed
+ * again when Lottie's own cache was trimmed. Compositions here are parsed once, on a background
+ * thread by {@link #preload}, and set synchronously when the view is bound.
+ */
+public class LottieCompositionCache {
+    private static final Map<String, LottieComposition> sCompositions = new ConcurrentHashMap<>();
+
+    /**
+     * Parses {@code assetName} on a background thread, unless it is cached already.
+     */
+    public static void preload(String assetName) {
+        if (sCompositions.containsKey(assetName)) return;
+        PostTask.postTask(TaskTraits.BEST_EFFORT_MAY_BLOCK, () -> load(assetName));
+    }
+
+    /**
+     * Sets the {@code assetName} animation on {@code view}: right away when it is cached,
+     * otherwise through Lottie's asynchronous loading, caching the result.
+     */
+    public static void setAnimation(LottieAnimationView view, String assetName) {
+        ThreadUtils.assertOnUiThread();
+        LottieComposition composition = sCompositions.get(assetName);
+        if (composition != null) {
+            view.setComposition(composition);
+            return;
+        }
+        view.addLottieOnCompositionLoadedListener(new LottieOnCompositionLoadedListener() {
+            @Override
+            public void onCompositionLoaded(LottieComposition loadedComposition) {
+                view.removeLottieOnCompositionLoadedListener(this);
+                sCompositions.put(assetName, loadedComposition);
+            }
+        });
+        view.setAnimation(assetName);
+    }
+
+    @WorkerThread
+    private static void load(String assetName) {
+        if (sCompositions.containsKey(assetName)) return;
+        LottieResult<LottieComposition> result = LottieCompositionFactory.fromAssetSync(
+                ContextUtils.getApplicationContext(), assetName);
+        if (result.getValue() != null) sCompositions.put(assetName, result.getValue());
+    }
+}
@@ -0,0 +1,222 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.local_database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.chromium.base.Log;
+import org.chromium.base.test.BaseJUnit4ClassRunner;
+import org.chromium.base.test.util.Manual;
+import org.chromium.chrome.browser.util.BenchmarkUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark of the brave_db stats queries at realistic scale.
+ *
+ * The stats tables are seeded with synthetic rows, growing from 10k to 5M rows, and each
+ * query is timed at every size. Results (latency percentiles and Java heap bytes allocated
+ * per call) go to logcat and to brave_db_benchmark.csv in the external files dir of the app,
+ * so runs before and after a schema or query change can be compared.
+ *
+ * It is a manual test, so bots skip it. Run with:
+ *     out/Default/bin/run_brave_public_test_apk -A Manual -f '*DatabaseHelperBenchmarkTest*'
+ * Pass e.g. `-e maxRows 1000000` to the instrumentation to stop at a smaller size.
+ */
+@RunWith(BaseJUnit4ClassRunner.class)
+public class DatabaseHelperBenchmarkTest {
+    private static final String TAG = "DbBenchmark";
+    private static final String DATABASE_NAME = "brave_db_benchmark";
+    private static final String RESULTS_FILE = "brave_db_benchmark.csv";
+    private static final String MAX_ROWS_ARGUMENT = "maxRows";
+
+    private static final int[] ROW_COUNTS = {10000, 100000, 1000000, 5000000};
+    // Synthetic data spread: tracked domains, visited sites and days of history.
+    private static final int DOMAINS = 2000;
+    private static final int SITES = 5000;
+    private static final int DAYS = 365;
+    // One saved bandwidth row per this many stats rows.
+    private static final int STATS_PER_BANDWIDTH_ROW = 10;
+    // Rows per seeding transaction, keeps the WAL file small.
+    private static final int SEED_BATCH_ROWS = 100000;
+    private static final int INSERTS = 1000;
+    private static final int WARMUP_ITERATIONS = 2;
+
+    private final Random mRandom = new Random(42);
+    private final List<String> mDates = new ArrayList<>();
+    private Context mContext;
+    private DatabaseHelper mHelper;
+    private Writer mResults;
+
+    @Before
+    public void setUp() throws Exception {
+        mContext = InstrumentationRegistry.getTargetContext();
+        mContext.deleteDatabase(DATABASE_NAME);
+        mHelper = new DatabaseHelper(mContext, DATABASE_NAME);
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        Calendar calendar = Calendar.getInstance();
+        for (int i = 0; i < DAYS; i++) {
+            mDates.add(dateFormat.format(calendar.getTime()));
+            calendar.add(Calendar.DAY_OF_YEAR, -1);
+        }
+
+        mResults = new FileWriter(new File(mContext.getExternalFilesDir(null), RESULTS_FILE));
+        mResults.write("rows,operation,iterations,p50_ms,p90_ms,p99_ms,max_ms,alloc_bytes\n");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mResults.close();
+        mHelper.close();
+        mContext.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    @LargeTest
+    @Manual(message = "Benchmark, takes tens of minutes at 5M rows")
+    public void benchmarkStatsQueries() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        long maxRows = Long.parseLong(arguments.getString(MAX_ROWS_ARGUMENT, "5000000"));
+
+        final String today = mDates.get(0);
+        final String weekAgo = mDates.get(7);
+        final String monthAgo = mDates.get(30);
+        int seededRows = 0;
+        for (int rows : ROW_COUNTS) {
+            if (rows > maxRows) break;
+            seed(seededRows, rows);
+            seededRows = rows;
+            Assert.assertEquals(rows, mHelper.getStatsCount());
+
+            // Large tables take seconds per query, fewer iterations keep the run bounded.
+            int iterations = rows <= 100000 ? 20 : 5;
+            measureInsertStats(rows);
+            measure(rows, "getAllStatsWithDate", iterations,
+                    () -> mHelper.getAllStatsWithDate(weekAgo, today));
+            measure(rows, "getStatsWithDate", iterations,
+                    () -> mHelper.getStatsWithDate(monthAgo, today));
+            measure(rows, "getSitesWithDate", iterations,
+                    () -> mHelper.getSitesWithDate(monthAgo, today));
+            measure(rows, "getTotalSavedBandwidthWithDate", iterations,
+                    () -> mHelper.getTotalSavedBandwidthWithDate(monthAgo, today));
+            measure(rows, "getStatsCountWithDate", iterations,
+                    () -> mHelper.getStatsCountWithDate(weekAgo, today));
+        }
+    }
+
+    /**
+     * Adds stats rows up to {@code toRows}, and saved bandwidth rows in proportion.
+     */
+    private void seed(int fromRows, int toRows) {
+        for (int batchStart = fromRows; batchStart < toRows; batchStart += SEED_BATCH_ROWS) {
+            seedBatch(batchStart, Math.min(toRows, batchStart + SEED_BATCH_ROWS));
+        }
+    }
+
+    private void seedBatch(int fromRows, int toRows) {
+        SQLiteDatabase db = mHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SQLiteStatement statsInsert = db.compileStatement("INSERT INTO "
+                    + BraveStatsTable.TABLE_NAME + " (" + BraveStatsTable.COLUMN_URL + ", "
+                    + BraveStatsTable.COLUMN_DOMAIN + ", " + BraveStatsTable.COLUMN_STAT_TYPE
+                    + ", " + BraveStatsTable.COLUMN_STAT_SITE + ", "
+                    + BraveStatsTable.COLUMN_STAT_SITE_DOMAIN + ", "
+                    + BraveStatsTable.COLUMN_TIMESTAMP + ") VALUES (?, ?, ?, ?, ?, ?)");
+            SQLiteStatement bandwidthInsert = db.compileStatement("INSERT INTO "
+                    + SavedBandwidthTable.TABLE_NAME + " ("
+                    + SavedBandwidthTable.COLUMN_SAVED_BANDWIDTH + ", "
+                    + SavedBandwidthTable.COLUMN_TIMESTAMP + ") VALUES (?, ?)");
+            for (int i = fromRows; i < toRows; i++) {
+                BraveStatsTable stat = createStat();
+                statsInsert.bindString(1, stat.getUrl());
+                statsInsert.bindString(2, stat.getDomain());
+                statsInsert.bindString(3, stat.getStatType());
+                statsInsert.bindString(4, stat.getStatSite());
+                statsInsert.bindString(5, stat.getStatSiteDomain());
+                statsInsert.bindString(6, stat.getTimestamp());
+                statsInsert.executeInsert();
+                if (i % STATS_PER_BANDWIDTH_ROW == 0) {
+                    bandwidthInsert.bindLong(1, 1 + mRandom.nextInt(500000));
+                    bandwidthInsert.bindString(2, randomDate());
+                    bandwidthInsert.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private BraveStatsTable createStat() {
+        String domain = "domain" + mRandom.nextInt(DOMAINS) + ".com";
+        String siteDomain = "tracker" + mRandom.nextInt(SITES) + ".net";
+        return new BraveStatsTable("https://" + domain + "/page" + mRandom.nextInt(100), domain,
+                mRandom.nextInt(4) == 0 ? "ads" : "trackers",
+                "https://" + siteDomain + "/script.js", siteDomain, randomDate());
+    }
+
+    private String randomDate() {
+        // Recent days are visited more often, like in real profiles.
+        double skewed = mRandom.nextDouble() * mRandom.nextDouble();
+        return mDates.get((int) (skewed * DAYS));
+    }
+
+    private void measureInsertStats(int rows) throws Exception {
+        List<BraveStatsTable> stats = new ArrayList<>(INSERTS);
+        for (int i = 0; i < INSERTS; i++) {
+            stats.add(createStat());
+        }
+        BenchmarkUtils.Result result =
+                BenchmarkUtils.measure(INSERTS, i -> mHelper.insertStats(stats.get(i)));
+        // Keep the table at the nominal size for the queries.
+        mHelper.getWritableDatabase().execSQL("DELETE FROM " + BraveStatsTable.TABLE_NAME
+                + " WHERE ID IN (SELECT ID FROM " + BraveStatsTable.TABLE_NAME
+                + " ORDER BY ID DESC LIMIT " + INSERTS + ")");
+        report(rows, "insertStats", result);
+    }
+
+    private void measure(int rows, String name, int iterations, Runnable query)
+            throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            query.run();
+        }
+        report(rows, name, BenchmarkUtils.measure(iterations, i -> query.run()));
+    }
+
+    // Allocations are of the Java heap only, SQLite's native memory is not included.
+    private void report(int rows, String name, BenchmarkUtils.Result result)
+            throws IOException {
+        String line = String.format(Locale.US, "%d,%s,%d,%.3f,%.3f,%.3f,%.3f,%d", rows, name,
+                result.getIterations(), result.getPercentileNanos(50) / 1e6,
+                result.getPercentileNanos(90) / 1e6, result.getPercentileNanos(99) / 1e6,
+                result.getMaxNanos() / 1e6, result.getAllocatedBytes() / result.getIterations());
+        Log.i(TAG, line);
+        mResults.write(line + "\n");
+        mResults.flush();
+    }
+}
@@ -0,0 +1,63 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.onboarding.v2;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.SmallTest;
+import android.view.View;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.chromium.base.test.BaseJUnit4ClassRunner;
+import org.chromium.content_public.browser.test.util.TestThreadUtils;
+
+/**
+ * Tests that drawing the onboarding highlight doesn't allocate once the view is laid out.
+ */
+@RunWith(BaseJUnit4ClassRunner.class)
+public class HighlightViewTest {
+    private static final int SIZE_PX = 400;
+    private static final int DRAWS = 50;
+
+    @Test
+    @SmallTest
+    @SuppressWarnings("deprecation")
+    public void testDrawDoesNotAllocate() {
+        TestThreadUtils.runOnUiThreadBlocking(() -> {
+            View target = new View(InstrumentationRegistry.getTargetContext());
+            layout(target, 100);
+            HighlightView highlightView =
+                    new HighlightView(InstrumentationRegistry.getTargetContext(), null);
+            layout(highlightView, SIZE_PX);
+            highlightView.setHighlightItem(new HighlightItem(target));
+            highlightView.setShouldShowHighlight(true);
+
+            Canvas canvas = new Canvas(
+                    Bitmap.createBitmap(SIZE_PX, SIZE_PX, Bitmap.Config.ARGB_8888));
+            highlightView.draw(canvas);
+
+            Debug.startAllocCounting();
+            int allocStart = Debug.getThreadAllocCount();
+            for (int i = 0; i < DRAWS; i++) {
+                highlightView.draw(canvas);
+            }
+            int allocations = Debug.getThreadAllocCount() - allocStart;
+            Debug.stopAllocCounting();
+            Assert.assertEquals(0, allocations);
+        });
+    }
+
+    private static void layout(View view, int sizePx) {
+        int spec = View.MeasureSpec.makeMeasureSpec(sizePx, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, sizePx, sizePx);
+    }
+}
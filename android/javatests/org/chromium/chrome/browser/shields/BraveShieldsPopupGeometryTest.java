@@ -0,0 +1,92 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.shields;
+
+import android.content.res.Configuration;
+import android.graphics.Rect;
+import android.support.test.filters.SmallTest;
+import android.util.DisplayMetrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.chromium.base.test.BaseJUnit4ClassRunner;
+
+/**
+ * Tests for the Brave Shields popup placement, with fake display metrics.
+ */
+@RunWith(BaseJUnit4ClassRunner.class)
+public class BraveShieldsPopupGeometryTest {
+    private static DisplayMetrics createMetrics(int width, int height) {
+        DisplayMetrics metrics = new DisplayMetrics();
+        metrics.widthPixels = width;
+        metrics.heightPixels = height;
+        return metrics;
+    }
+
+    private static Configuration createConfiguration(int orientation) {
+        Configuration configuration = new Configuration();
+        configuration.orientation = orientation;
+        return configuration;
+    }
+
+    @Test
+    @SmallTest
+    public void testPortrait() {
+        BraveShieldsPopupGeometry geometry = new BraveShieldsPopupGeometry(
+                createConfiguration(Configuration.ORIENTATION_PORTRAIT),
+                createMetrics(1080, 1920));
+        Assert.assertEquals(810, geometry.getPopupWidth());
+        Assert.assertEquals(
+                1920 - 63, geometry.getHardwareMenuAnchorY(new Rect(0, 63, 1080, 1920)));
+    }
+
+    @Test
+    @SmallTest
+    public void testLandscape() {
+        BraveShieldsPopupGeometry geometry = new BraveShieldsPopupGeometry(
+                createConfiguration(Configuration.ORIENTATION_LANDSCAPE),
+                createMetrics(1920, 1080));
+        Assert.assertEquals(1440, geometry.getPopupWidth());
+        Assert.assertEquals(
+                1080 - 63, geometry.getHardwareMenuAnchorY(new Rect(0, 63, 1920, 1080)));
+    }
+
+    @Test
+    @SmallTest
+    public void testAbnormalVisibleFrame() {
+        // The visible frame may be unset, e.g. before the window is attached.
+        BraveShieldsPopupGeometry geometry = new BraveShieldsPopupGeometry(
+                createConfiguration(Configuration.ORIENTATION_PORTRAIT),
+                createMetrics(1080, 1920));
+        Assert.assertEquals(1920, geometry.getHardwareMenuAnchorY(new Rect(-1, -1, -1, -1)));
+    }
+
+    @Test
+    @SmallTest
+    public void testVisibleFrameChangesWithoutConfigurationChange() {
+        // E.g. the status bar is hidden in fullscreen: same configuration, new visible frame.
+        BraveShieldsPopupGeometry geometry = new BraveShieldsPopupGeometry(
+                createConfiguration(Configuration.ORIENTATION_PORTRAIT),
+                createMetrics(1080, 1920));
+        Assert.assertEquals(
+                1920 - 63, geometry.getHardwareMenuAnchorY(new Rect(0, 63, 1080, 1920)));
+        Assert.assertEquals(1920, geometry.getHardwareMenuAnchorY(new Rect(0, 0, 1080, 1920)));
+    }
+
+    @Test
+    @SmallTest
+    public void testIsForConfiguration() {
+        BraveShieldsPopupGeometry geometry = new BraveShieldsPopupGeometry(
+                createConfiguration(Configuration.ORIENTATION_PORTRAIT),
+                createMetrics(1080, 1920));
+        Assert.assertTrue(
+                geometry.isFor(createConfiguration(Configuration.ORIENTATION_PORTRAIT)));
+        Assert.assertFalse(
+                geometry.isFor(createConfiguration(Configuration.ORIENTATION_LANDSCAPE)));
+    }
+}
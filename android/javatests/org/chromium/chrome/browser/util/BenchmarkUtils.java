@@ -0,0 +1,94 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.util;
+
+import android.os.Debug;
+
+import java.util.Arrays;
+
+/**
+ * Timing and allocation measurement shared by the manual benchmarks.
+ *
+ * Allocations are counted with {@link Debug#getThreadAllocSize()}, so they only include the
+ * Java heap of the calling thread, not native memory, e.g. SQLite's.
+ */
+public final class BenchmarkUtils {
+    /**
+     * One measured iteration of a benchmark.
+     */
+    public interface Iteration {
+        void run(int iteration) throws Exception;
+    }
+
+    /**
+     * Durations and allocations of the iterations of a benchmark.
+     */
+    public static final class Result {
+        private final long[] mSortedNanos;
+        private final long mAllocatedBytes;
+
+        private Result(long[] sortedNanos, long allocatedBytes) {
+            mSortedNanos = sortedNanos;
+            mAllocatedBytes = allocatedBytes;
+        }
+
+        public int getIterations() {
+            return mSortedNanos.length;
+        }
+
+        /**
+         * @return the duration of an iteration at {@code percentile}, from 0 to 100.
+         */
+        public long getPercentileNanos(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * mSortedNanos.length) - 1;
+            return mSortedNanos[Math.max(0, index)];
+        }
+
+        public long getMaxNanos() {
+            return mSortedNanos[mSortedNanos.length - 1];
+        }
+
+        public long getAllocatedBytes() {
+            return mAllocatedBytes;
+        }
+    }
+
+    private BenchmarkUtils() {}
+
+    /**
+     * Runs {@code iteration} {@code iterations} times, timing each run. Warm up is left to the
+     * caller, as what it takes depends on the benchmark.
+     */
+    public static Result measure(int iterations, Iteration iteration) throws Exception {
+        long[] durations = new long[iterations];
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocStart = startAllocCounting();
+            long start = System.nanoTime();
+            iteration.run(i);
+            durations[i] = System.nanoTime() - start;
+            allocated += stopAllocCounting(allocStart);
+        }
+        Arrays.sort(durations);
+        return new Result(durations, allocated);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long startAllocCounting() {
+        Debug.startAllocCounting();
+        return Debug.getThreadAllocSize();
+    }
+
+    /**
+     * @return bytes allocated by this thread since {@link #startAllocCounting()}.
+     */
+    @SuppressWarnings("deprecation")
+    private static long stopAllocCounting(long allocStart) {
+        long allocated = Debug.getThreadAllocSize() - allocStart;
+        Debug.stopAllocCounting();
+        return allocated;
+    }
+}
@@ -0,0 +1,220 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.chromium.chrome.browser.util;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.filters.SmallTest;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.chromium.base.FileUtils;
+import org.chromium.chrome.test.ChromeBrowserTestRule;
+import org.chromium.chrome.test.ChromeJUnit4ClassRunner;
+import org.chromium.net.test.EmbeddedTestServer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for BraveReportQueue against a local test server, and against a minimal keep-alive
+ * server that records the requests and the connections they came in on.
+ */
+@RunWith(ChromeJUnit4ClassRunner.class)
+public class BraveReportQueueTest {
+    @Rule
+    public final ChromeBrowserTestRule mBrowserTestRule = new ChromeBrowserTestRule();
+
+    private EmbeddedTestServer mTestServer;
+    private File mDirectory;
+    private BraveReportQueue mQueue;
+
+    @Before
+    public void setUp() throws Exception {
+        mTestServer = EmbeddedTestServer.createAndStartServer(
+                InstrumentationRegistry.getInstrumentation().getContext());
+        mDirectory = new File(
+                InstrumentationRegistry.getTargetContext().getCacheDir(), "brave_reports_test");
+        FileUtils.recursivelyDeleteFile(mDirectory, null);
+        mQueue = new BraveReportQueue(mDirectory, "test_api_key");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mTestServer.stopAndDestroyServer();
+        FileUtils.recursivelyDeleteFile(mDirectory, null);
+    }
+
+    private void writeReport(String name, String path) throws Exception {
+        writeReport(name, mTestServer.getURL(path), "example.com");
+    }
+
+    private void writeReport(String name, String url, String domain) throws Exception {
+        JSONObject payload = new JSONObject();
+        payload.put("domain", domain);
+        mQueue.writeReport(name, url, payload);
+    }
+
+    /**
+     * Answers every request with 200 and keeps the connection open, like the report server.
+     */
+    private static class RecordingServer implements Runnable {
+        private final ServerSocket mServerSocket;
+        private final Thread mThread;
+        final List<String> mBodies = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger mConnections = new AtomicInteger();
+
+        RecordingServer() throws IOException {
+            mServerSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+            mThread = new Thread(this, "RecordingServer");
+            mThread.start();
+        }
+
+        String getUrl() {
+            return String.format(
+                    Locale.US, "http://127.0.0.1:%d/report", mServerSocket.getLocalPort());
+        }
+
+        void stop() throws Exception {
+            mServerSocket.close();
+            mThread.join();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Socket socket;
+                try {
+                    socket = mServerSocket.accept();
+                } catch (IOException e) {
+                    return; // Closed by stop().
+                }
+                mConnections.incrementAndGet();
+                Thread connection = new Thread(() -> serve(socket));
+                connection.setDaemon(true);
+                connection.start();
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                InputStream in = new BufferedInputStream(s.getInputStream());
+                OutputStream out = s.getOutputStream();
+                while (true) {
+                    int contentLength = -1;
+                    String line;
+                    while (!(line = readLine(in)).isEmpty()) {
+                        String lowerCase = line.toLowerCase(Locale.US);
+                        if (lowerCase.startsWith("content-length:")) {
+                            contentLength = Integer.parseInt(lowerCase.substring(15).trim());
+                        }
+                    }
+                    byte[] body = new byte[Math.max(0, contentLength)];
+                    int read = 0;
+                    while (read < body.length) {
+                        int count = in.read(body, read, body.length - read);
+                        if (count < 0) return;
+                        read += count;
+                    }
+                    mBodies.add(new String(body, StandardCharsets.UTF_8));
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n"
+                            + "Content-Type: application/json\r\n\r\n{}")
+                                      .getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // The client closed the connection.
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) throw new IOException("Connection closed");
+                if (c != '\r') line.write(c);
+            }
+            return new String(line.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @SmallTest
+    public void testBatchSendsPayloadsOverOneConnection() throws Exception {
+        RecordingServer server = new RecordingServer();
+        try {
+            writeReport("0000000000001-0000.json", server.getUrl(), "first.com");
+            writeReport("0000000000001-0001.json", server.getUrl(), "second.com");
+            writeReport("0000000000001-0002.json", server.getUrl(), "third.com");
+
+            Assert.assertTrue(mQueue.sendPendingReports());
+            Assert.assertEquals(0, mQueue.getPendingReportCount());
+
+            // Payloads are sent in enqueue order, with the api key added.
+            Assert.assertEquals(3, server.mBodies.size());
+            String[] domains = {"first.com", "second.com", "third.com"};
+            for (int i = 0; i < domains.length; i++) {
+                JSONObject body = new JSONObject(server.mBodies.get(i));
+                Assert.assertEquals(domains[i], body.getString("domain"));
+                Assert.assertEquals("test_api_key", body.getString("api_key"));
+            }
+            // The responses are drained, so the whole batch reuses the first connection.
+            Assert.assertEquals(1, server.mConnections.get());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @SmallTest
+    public void testReportsAreSentInOneBatch() throws Exception {
+        writeReport("0000000000001-0000.json", "/echo");
+        writeReport("0000000000001-0001.json", "/echo");
+        Assert.assertEquals(2, mQueue.getPendingReportCount());
+
+        Assert.assertTrue(mQueue.sendPendingReports());
+        Assert.assertEquals(0, mQueue.getPendingReportCount());
+    }
+
+    @Test
+    @SmallTest
+    public void testServerErrorKeepsReports() throws Exception {
+        writeReport("0000000000001-0000.json", "/echo?status=503");
+        writeReport("0000000000001-0001.json", "/echo");
+
+        Assert.assertFalse(mQueue.sendPendingReports());
+        // The batch stops at the first transient failure to keep reports in order.
+        Assert.assertEquals(2, mQueue.getPendingReportCount());
+    }
+
+    @Test
+    @SmallTest
+    public void testClientErrorDropsReport() throws Exception {
+        writeReport("0000000000001-0000.json", "/echo?status=400");
+        writeReport("0000000000001-0001.json", "/echo");
+
+        Assert.assertTrue(mQueue.sendPendingReports());
+        Assert.assertEquals(0, mQueue.getPendingReportCount());
+    }
+}
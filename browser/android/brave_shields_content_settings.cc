@@ -58,17 +58,20 @@ void BraveShieldsContentSettings::DispatchBlockedEventToJava(int tab_id,
 }
 
 void BraveShieldsContentSettings::DispatchSavedBandwidthToJava(
-  uint64_t savings) {
+  uint64_t savings, bool is_off_the_record) {
   JNIEnv* env = base::android::AttachCurrentThread();
-  Java_BraveShieldsContentSettings_savedBandwidth(env, jobj_, savings);
+  Java_BraveShieldsContentSettings_savedBandwidth(env, jobj_, savings,
+      is_off_the_record);
 }
 
-void BraveShieldsContentSettings::DispatchSavedBandwidth(uint64_t savings) {
+void BraveShieldsContentSettings::DispatchSavedBandwidth(uint64_t savings,
+    bool is_off_the_record) {
   DCHECK(g_brave_shields_content_settings);
   if (!g_brave_shields_content_settings) {
     return;
   }
-  g_brave_shields_content_settings->DispatchSavedBandwidthToJava(savings);
+  g_brave_shields_content_settings->DispatchSavedBandwidthToJava(savings,
+      is_off_the_record);
 }
 
 // static
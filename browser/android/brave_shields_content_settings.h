@@ -23,9 +23,9 @@ class BraveShieldsContentSettings {
   void DispatchBlockedEventToJava(int tab_id,
                                   const std::string& block_type,
                                   const std::string& subresource);
-  void DispatchSavedBandwidthToJava(uint64_t savings);
+  void DispatchSavedBandwidthToJava(uint64_t savings, bool is_off_the_record);
 
-  static void DispatchSavedBandwidth(uint64_t savings);
+  static void DispatchSavedBandwidth(uint64_t savings, bool is_off_the_record);
 
   static void DispatchBlockedEvent(int tab_id,
                                    const std::string& block_type,
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package org.chromium.chrome.browser.notifications;
+
+import static org.chromium.ui.base.ViewUtils.dpToPx;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.DisplayMetrics;
+
+import androidx.annotation.Nullable;
+
+import org.chromium.base.ApiCompatibilityUtils;
+import org.chromium.chrome.R;
+
+/**
+ * Process wide cache of the bitmaps {@link BraveAdsNotificationBuilder} puts in every ad
+ * notification: the Brave icon and the work profile badge. They are prepared once per display
+ * density instead of once per view of every notification.
+ *
+ * The cache is dropped on configuration changes and low memory. Cached bitmaps may still be
+ * referenced by posted notifications, so they are never recycled here.
+ */
+class BraveAdsNotificationAssets {
+    /**
+     * The size of the work profile badge (width and height).
+     */
+    private static final int WORK_PROFILE_BADGE_SIZE_DP = 16;
+
+    private static boolean sCallbacksRegistered;
+    private static int sDensityDpi;
+    private static Bitmap sBraveIcon;
+    private static boolean sWorkProfileBadgeLoaded;
+    private static Bitmap sWorkProfileBadge;
+
+    private BraveAdsNotificationAssets() {}
+
+    /**
+     * @return the Brave icon, used as the large icon of ad notifications.
+     */
+    static synchronized Bitmap getBraveIcon(Context context) {
+        Resources resources = ensureDensity(context);
+        if (sBraveIcon == null) {
+            sBraveIcon = BitmapFactory.decodeResource(resources, R.drawable.btn_brave);
+        }
+        return sBraveIcon;
+    }
+
+    /**
+     * @return the work profile badge, or null if the user isn't in a work profile.
+     */
+    @Nullable
+    static synchronized Bitmap getWorkProfileBadge(Context context) {
+        Resources resources = ensureDensity(context);
+        if (!sWorkProfileBadgeLoaded) {
+            sWorkProfileBadge = createWorkProfileBadge(resources);
+            sWorkProfileBadgeLoaded = true;
+        }
+        return sWorkProfileBadge;
+    }
+
+    @Nullable
+    private static Bitmap createWorkProfileBadge(Resources resources) {
+        DisplayMetrics metrics = resources.getDisplayMetrics();
+        int size = dpToPx(metrics, WORK_PROFILE_BADGE_SIZE_DP);
+        int[] colors = new int[size * size];
+
+        // Create an immutable bitmap, so that it can not be reused for painting a badge into it.
+        Bitmap bitmap = Bitmap.createBitmap(colors, size, size, Bitmap.Config.ARGB_8888);
+
+        Drawable inputDrawable = new BitmapDrawable(resources, bitmap);
+        Drawable outputDrawable = ApiCompatibilityUtils.getUserBadgedDrawableForDensity(
+                inputDrawable, null /* badgeLocation */, metrics.densityDpi);
+
+        // The input bitmap is immutable, so the output drawable will be a different instance from
+        // the input drawable if the work profile badge was applied.
+        if (inputDrawable != outputDrawable && outputDrawable instanceof BitmapDrawable) {
+            return ((BitmapDrawable) outputDrawable).getBitmap();
+        }
+        return null;
+    }
+
+    /**
+     * Clears the cache if it was prepared for another density, and makes sure it is cleared on
+     * configuration changes.
+     */
+    private static Resources ensureDensity(Context context) {
+        if (!sCallbacksRegistered) {
+            context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks() {
+                @Override
+                public void onConfigurationChanged(Configuration newConfig) {
+                    clear();
+                }
+
+                @Override
+                public void onLowMemory() {
+                    clear();
+                }
+            });
+            sCallbacksRegistered = true;
+        }
+        Resources resources = context.getResources();
+        int densityDpi = resources.getDisplayMetrics().densityDpi;
+        if (densityDpi != sDensityDpi) {
+            clear();
+            sDensityDpi = densityDpi;
+        }
+        return resources;
+    }
+
+    private static synchronized void clear() {
+        sDensityDpi = 0;
+        sBraveIcon = null;
+        sWorkProfileBadgeLoaded = false;
+        sWorkProfileBadge = null;
+    }
+}
@@ -12,11 +12,7 @@ import static org.chromium.ui.base.ViewUtils.dpToPx;
 import android.app.Notification;
 import android.app.PendingIntent;
 import android.content.Context;
-import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.util.DisplayMetrics;
 import android.view.View;
@@ -25,7 +21,6 @@ import android.widget.RemoteViews;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
-import org.chromium.base.ApiCompatibilityUtils;
 import org.chromium.base.ApplicationStatus;
 import org.chromium.chrome.R;
 import org.chromium.chrome.browser.notifications.channels.BraveChannelDefinitions;
@@ -70,11 +65,6 @@ public class BraveAdsNotificationBuilder extends NotificationBuilderBase {
      */
     private static final int BUTTON_ICON_PADDING_DP = 8;
 
-    /**
-     * The size of the work profile badge (width and height).
-     */
-    private static final int WORK_PROFILE_BADGE_SIZE_DP = 16;
-
     /**
      * Material Grey 600 - to be applied to action button icons in the Material theme.
      */
@@ -119,10 +109,11 @@ public class BraveAdsNotificationBuilder extends NotificationBuilderBase {
                 calculateScaledPadding(fontScale, mContext.getResources().getDisplayMetrics());
         setChannelId(BraveChannelDefinitions.ChannelId.BRAVE_ADS);
 
+        Bitmap braveIcon = BraveAdsNotificationAssets.getBraveIcon(mContext);
         for (RemoteViews view : new RemoteViews[] {compactView, bigView}) {
             view.setTextViewText(R.id.title, mTitle);
             view.setTextViewText(R.id.body, mBody);
-            view.setImageViewBitmap(R.id.icon, getBraveIcon());
+            view.setImageViewBitmap(R.id.icon, braveIcon);
             view.setViewPadding(R.id.title, 0, scaledPadding, 0, 0);
             view.setViewPadding(R.id.body_container, 0, scaledPadding, 0, scaledPadding);
             // addWorkProfileBadge(view);
@@ -165,7 +156,7 @@ public class BraveAdsNotificationBuilder extends NotificationBuilderBase {
         // Wear devices and custom lock screens.
         builder.setContentTitle(mTitle);
         builder.setContentText(mBody);
-        builder.setLargeIcon(getBraveIcon());
+        builder.setLargeIcon(braveIcon);
         setStatusBarIcon(builder, mSmallIconId, mSmallIconBitmapForStatusBar);
         // TODO: Check to see if this is what we want
         setGroupOnBuilder(builder, mOrigin);
@@ -177,11 +168,6 @@ public class BraveAdsNotificationBuilder extends NotificationBuilderBase {
         return builder.buildWithBigContentView(bigView);
     }
 
-    private Bitmap getBraveIcon() {
-        int largeIconId = R.drawable.btn_brave;
-        return BitmapFactory.decodeResource(mContext.getResources(), largeIconId);
-    }
-
     @Override
     public NotificationBuilderBase addButtonAction(@Nullable Bitmap iconBitmap,
             @Nullable CharSequence title, @Nullable PendingIntent intent) {
@@ -209,23 +195,9 @@ public class BraveAdsNotificationBuilder extends NotificationBuilderBase {
      * Shows the work profile badge if it is needed.
      */
     private void addWorkProfileBadge(RemoteViews view) {
-        Resources resources = mContext.getResources();
-        DisplayMetrics metrics = resources.getDisplayMetrics();
-        int size = dpToPx(metrics, WORK_PROFILE_BADGE_SIZE_DP);
-        int[] colors = new int[size * size];
-
-        // Create an immutable bitmap, so that it can not be reused for painting a badge into it.
-        Bitmap bitmap = Bitmap.createBitmap(colors, size, size, Bitmap.Config.ARGB_8888);
-
-        Drawable inputDrawable = new BitmapDrawable(resources, bitmap);
-        Drawable outputDrawable = ApiCompatibilityUtils.getUserBadgedDrawableForDensity(
-                inputDrawable, null /* badgeLocation */, metrics.densityDpi);
-
-        // The input bitmap is immutable, so the output drawable will be a different instance from
-        // the input drawable if the work profile badge was applied.
-        if (inputDrawable != outputDrawable && outputDrawable instanceof BitmapDrawable) {
-            view.setImageViewBitmap(
-                    R.id.work_profile_badge, ((BitmapDrawable) outputDrawable).getBitmap());
+        Bitmap badge = BraveAdsNotificationAssets.getWorkProfileBadge(mContext);
+        if (badge != null) {
+            view.setImageViewBitmap(R.id.work_profile_badge, badge);
             view.setViewVisibility(R.id.work_profile_badge, View.VISIBLE);
         }
     }
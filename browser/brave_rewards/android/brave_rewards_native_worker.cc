@@ -265,21 +265,22 @@ void BraveRewardsNativeWorker::OnBalance(
       env, weak_java_brave_rewards_native_worker_.get(env), 0);
 }
 
-base::android::ScopedJavaLocalRef<jstring>
+base::android::ScopedJavaLocalRef<jobject>
     BraveRewardsNativeWorker::GetWalletBalance(JNIEnv* env,
     const base::android::JavaParamRef<jobject>& obj) {
-  std::string json_balance;
-  base::DictionaryValue json_root;
-  json_root.SetDoubleKey("total", balance_.total);
-
-  auto json_wallets = std::make_unique<base::DictionaryValue>();
+  std::vector<std::string> wallet_types;
+  std::vector<double> wallet_amounts;
+  wallet_types.reserve(balance_.wallets.size());
+  wallet_amounts.reserve(balance_.wallets.size());
   for (const auto & item : balance_.wallets) {
-    json_wallets->SetDoubleKey(item.first, item.second);
+    wallet_types.push_back(item.first);
+    wallet_amounts.push_back(item.second);
   }
-  json_root.SetDictionary("wallets", std::move(json_wallets));
-  base::JSONWriter::Write(json_root, &json_balance);
 
-  return base::android::ConvertUTF8ToJavaString(env, json_balance);
+  return Java_BraveRewardsNativeWorker_createBalance(env,
+      balance_.total,
+      base::android::ToJavaArrayOfStrings(env, wallet_types),
+      base::android::ToJavaDoubleArray(env, wallet_amounts));
 }
 
 double BraveRewardsNativeWorker::GetWalletRate(JNIEnv* env,
@@ -700,26 +701,25 @@ void BraveRewardsNativeWorker::GetExternalWallet(
 void BraveRewardsNativeWorker::OnGetExternalWallet(
     const ledger::type::Result result,
     ledger::type::UpholdWalletPtr wallet) {
-  std::string json_wallet;
-  base::Value dict(base::Value::Type::DICTIONARY);
-  dict.SetStringKey("token", wallet->token);
-  dict.SetStringKey("address", wallet->address);
-
-  // enum class WalletStatus : int32_t
-  dict.SetIntKey("status", static_cast<int32_t>(wallet->status));
-  dict.SetStringKey("verify_url", wallet->verify_url);
-  dict.SetStringKey("add_url", wallet->add_url);
-  dict.SetStringKey("withdraw_url", wallet->withdraw_url);
-  dict.SetStringKey("user_name", wallet->user_name);
-  dict.SetStringKey("account_url", wallet->account_url);
-  dict.SetStringKey("login_url", wallet->login_url);
-  base::JSONWriter::Write(dict, &json_wallet);
-
   JNIEnv* env = base::android::AttachCurrentThread();
+  base::android::ScopedJavaLocalRef<jobject> java_wallet;
+  if (wallet) {
+    using base::android::ConvertUTF8ToJavaString;
+    // enum class WalletStatus : int32_t
+    java_wallet = Java_BraveRewardsNativeWorker_createExternalWallet(env,
+        ConvertUTF8ToJavaString(env, wallet->token),
+        ConvertUTF8ToJavaString(env, wallet->address),
+        static_cast<int32_t>(wallet->status),
+        ConvertUTF8ToJavaString(env, wallet->verify_url),
+        ConvertUTF8ToJavaString(env, wallet->add_url),
+        ConvertUTF8ToJavaString(env, wallet->withdraw_url),
+        ConvertUTF8ToJavaString(env, wallet->user_name),
+        ConvertUTF8ToJavaString(env, wallet->account_url));
+  }
+
   Java_BraveRewardsNativeWorker_OnGetExternalWallet(env,
       weak_java_brave_rewards_native_worker_.get(env),
-      static_cast<int>(result),
-      base::android::ConvertUTF8ToJavaString(env, json_wallet));
+      static_cast<int>(result), java_wallet);
 }
 
 void BraveRewardsNativeWorker::DisconnectWallet(JNIEnv* env,
@@ -54,7 +54,7 @@ class BraveRewardsNativeWorker : public brave_rewards::RewardsServiceObserver,
         const base::android::JavaParamRef<jobject>& jcaller, int tabId,
         const base::android::JavaParamRef<jstring>& host);
 
-    base::android::ScopedJavaLocalRef<jstring> GetWalletBalance(JNIEnv* env,
+    base::android::ScopedJavaLocalRef<jobject> GetWalletBalance(JNIEnv* env,
         const base::android::JavaParamRef<jobject>& obj);
 
     double GetWalletRate(JNIEnv* env,
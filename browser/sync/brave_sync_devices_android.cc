@@ -10,7 +10,6 @@
 
 #include "base/android/jni_android.h"
 #include "base/android/jni_string.h"
-#include "base/json/json_writer.h"
 
 #include "brave/build/android/jni_headers/BraveSyncDevices_jni.h"
 
@@ -59,7 +58,9 @@ void BraveSyncDevicesAndroid::OnDeviceInfoChange() {
       weak_java_brave_sync_worker_.get(env));
 }
 
-base::Value BraveSyncDevicesAndroid::GetSyncDeviceList() {
+void BraveSyncDevicesAndroid::GetSyncDeviceList(JNIEnv* env,
+    const base::android::JavaParamRef<jobject>& jcaller,
+    const base::android::JavaParamRef<jobject>& device_list) {
   auto* device_info_service =
       DeviceInfoSyncServiceFactory::GetForProfile(profile_);
   syncer::DeviceInfoTracker* tracker =
@@ -68,31 +69,18 @@ base::Value BraveSyncDevicesAndroid::GetSyncDeviceList() {
   const syncer::DeviceInfo* local_device_info = device_info_service
      ->GetLocalDeviceInfoProvider()->GetLocalDeviceInfo();
 
-  base::Value device_list(base::Value::Type::LIST);
-
   for (const auto& device : tracker->GetAllDeviceInfo()) {
-    auto device_value = base::Value::FromUniquePtrValue(device->ToValue());
     bool is_current_device = local_device_info
         ? local_device_info->guid() == device->guid()
         : false;
-    device_value.SetBoolKey("isCurrentDevice", is_current_device);
-    device_list.Append(std::move(device_value));
+    Java_BraveSyncDevices_addSyncDeviceInfo(env, jcaller, device_list,
+        base::android::ConvertUTF8ToJavaString(env, device->guid()),
+        base::android::ConvertUTF8ToJavaString(env, device->client_name()),
+        is_current_device,
+        base::android::ConvertUTF8ToJavaString(env,
+                                               device->GetDeviceTypeString()),
+        device->last_updated_timestamp().ToJavaTime());
   }
-
-  return device_list;
-}
-
-base::android::ScopedJavaLocalRef<jstring>
-    BraveSyncDevicesAndroid::GetSyncDeviceListJson(JNIEnv* env,
-    const base::android::JavaParamRef<jobject>& jcaller) {
-  base::Value device_list = GetSyncDeviceList();
-  std::string json_string;
-  if (!base::JSONWriter::Write(device_list, &json_string)) {
-    VLOG(1) << "Writing as JSON failed. Passing empty string to Java code.";
-    json_string = std::string();
-  }
-
-  return base::android::ConvertUTF8ToJavaString(env, json_string);
 }
 
 static void JNI_BraveSyncDevices_Init(
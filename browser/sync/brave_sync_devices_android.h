@@ -10,7 +10,6 @@
 
 #include "base/android/jni_weak_ref.h"
 #include "base/scoped_observer.h"
-#include "base/values.h"
 #include "chrome/browser/sync/profile_sync_service_android.h"
 #include "components/sync_device_info/device_info_tracker.h"
 
@@ -26,16 +25,16 @@ class BraveSyncDevicesAndroid : public syncer::DeviceInfoTracker::Observer {
   void Destroy(JNIEnv* env,
                const base::android::JavaParamRef<jobject>& jcaller);
 
-  base::android::ScopedJavaLocalRef<jstring> GetSyncDeviceListJson(
+  // Adds SyncDeviceInfo objects for all known devices to |device_list|.
+  void GetSyncDeviceList(
       JNIEnv* env,
-      const base::android::JavaParamRef<jobject>& jcaller);
+      const base::android::JavaParamRef<jobject>& jcaller,
+      const base::android::JavaParamRef<jobject>& device_list);
 
  private:
   // syncer::DeviceInfoTracker::Observer
   void OnDeviceInfoChange() override;
 
-  base::Value GetSyncDeviceList();
-
   ScopedObserver<syncer::DeviceInfoTracker, syncer::DeviceInfoTracker::Observer>
       device_info_tracker_observer_{this};
 
@@ -0,0 +1,107 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.brave.bytecode;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the changes made and time spent by each adapter, summed over all
+ * the classes of a jar and the worker threads processing them, and written as
+ * JSON once the jar is done.
+ */
+class AdapterMetrics {
+    private static final long NANOS_PER_MICRO = 1000;
+    // Visitors past the last Brave adapter, down to and including the ClassWriter.
+    static final String DOWNSTREAM = "<downstream>";
+    // Serializing the rewritten class.
+    static final String CLASS_WRITER_TO_BYTE_ARRAY = "<ClassWriter.toByteArray>";
+
+    static class Counters {
+        final AtomicLong mClassesVisited = new AtomicLong();
+        final AtomicLong mSuperClassesChanged = new AtomicLong();
+        final AtomicLong mMethodsChanged = new AtomicLong();
+        final AtomicLong mCallsChanged = new AtomicLong();
+        final AtomicLong mFieldsChanged = new AtomicLong();
+        final AtomicLong mNanos = new AtomicLong();
+        // Calls now going through virtual dispatch, kept for review.
+        final Set<String> mInvokeVirtualCalls = new ConcurrentSkipListSet<>();
+    }
+
+    private static final Map<String, Counters> sCounters = new ConcurrentHashMap<>();
+
+    private AdapterMetrics() {}
+
+    /**
+     * @return the counters of the adapter named {@code adapterName}.
+     */
+    static Counters get(String adapterName) {
+        return sCounters.computeIfAbsent(adapterName, name -> new Counters());
+    }
+
+    /**
+     * Writes the counters of all adapters, sorted by name, to {@code path}.
+     */
+    static void write(String path, int classCount, long totalNanos) throws IOException {
+        try (Writer writer = new OutputStreamWriter(
+                     new FileOutputStream(path), StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            writer.write("  \"classes\": " + classCount + ",\n");
+            writer.write("  \"total_us\": " + totalNanos / NANOS_PER_MICRO + ",\n");
+            writer.write("  \"adapters\": {");
+            Iterator<Map.Entry<String, Counters>> iterator =
+                    new TreeMap<>(sCounters).entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Counters> entry = iterator.next();
+                Counters counters = entry.getValue();
+                writer.write("\n    " + quote(entry.getKey()) + ": {\n");
+                writer.write("      \"classes_visited\": " + counters.mClassesVisited + ",\n");
+                writer.write("      \"super_classes_changed\": " + counters.mSuperClassesChanged
+                        + ",\n");
+                writer.write("      \"methods_changed\": " + counters.mMethodsChanged + ",\n");
+                writer.write("      \"calls_changed\": " + counters.mCallsChanged + ",\n");
+                writer.write("      \"fields_changed\": " + counters.mFieldsChanged + ",\n");
+                writer.write("      \"time_us\": " + counters.mNanos.get() / NANOS_PER_MICRO
+                        + ",\n");
+                writer.write("      \"invoke_virtual_calls\": [");
+                Iterator<String> calls = counters.mInvokeVirtualCalls.iterator();
+                while (calls.hasNext()) {
+                    writer.write(quote(calls.next()));
+                    if (calls.hasNext()) {
+                        writer.write(", ");
+                    }
+                }
+                writer.write("]\n    }");
+                if (iterator.hasNext()) {
+                    writer.write(",");
+                }
+            }
+            writer.write("\n  }\n}\n");
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -6,6 +6,7 @@
 package org.brave.bytecode;
 
 import static org.objectweb.asm.Opcodes.ASM5;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
 import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
 import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
@@ -66,20 +67,28 @@ class BraveClassVisitor extends ClassVisitor {
                                     java.lang.String descriptor,
                                     boolean isInterface) {
             if (shouldMakePublicMethod(owner, name) &&
-                    opcode == INVOKESPECIAL) {
-                System.out.println("use invoke virtual for call to method " +
-                        owner + "." + name);
+                    opcode == INVOKESPECIAL &&
+                    shouldUseInvokeVirtual(owner, name, descriptor)) {
                 // use invoke virtual because other classes can override
                 // the method now
                 opcode = INVOKEVIRTUAL;
+                mMetrics.mCallsChanged.incrementAndGet();
+                mMetrics.mInvokeVirtualCalls.add(owner + "." + name + descriptor);
             }
             owner = maybeChangeOwner(owner, name);
             super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
         }
     }
 
+    private static boolean sVerbose;
+
+    private final AdapterMetrics.Counters mMetrics;
+    private long mStartNanos;
+    private long mInclusiveNanos;
+
     protected String mName = "";
     protected String mSuperName = "";
+    private int mAccess;
 
     private Map<String, String> mSuperNames = new HashMap<String, String>();
     private Map<String, ArrayList<String>> mDeleteMethods =
@@ -98,6 +107,20 @@ class BraveClassVisitor extends ClassVisitor {
     public BraveClassVisitor(ClassVisitor visitor) {
         super(ASM5, null);
         mTarget = visitor;
+        mMetrics = AdapterMetrics.get(getClass().getSimpleName());
+    }
+
+    /**
+     * Sets whether each change is logged. The changes are counted either way.
+     */
+    static void setVerbose(boolean verbose) {
+        sVerbose = verbose;
+    }
+
+    private static void log(String message) {
+        if (sVerbose) {
+            System.out.println(message);
+        }
     }
 
     protected void changeSuperName(String className, String superName) {
@@ -141,6 +164,28 @@ class BraveClassVisitor extends ClassVisitor {
         return shouldMakePublicMethod(mName, methodName);
     }
 
+    private boolean shouldUseInvokeVirtual(String owner, String methodName,
+                                           String descriptor) {
+        // Calls from subclasses are super calls, which must stay direct.
+        if (!owner.equals(mName)) {
+            log("keep invoke special for call to method " +
+                    owner + "." + methodName + " from " + mName);
+            return false;
+        }
+
+        // Subclasses may be in jars processed separately, e.g. downstream,
+        // so only a final class is known not to have an override.
+        if ((mAccess & ACC_FINAL) != 0) {
+            log("keep invoke special for call to method " +
+                    owner + "." + methodName + ", final class");
+            return false;
+        }
+
+        log("use invoke virtual for call to method " +
+                owner + "." + methodName);
+        return true;
+    }
+
     protected void makePublicMethod(String className, String methodName) {
         ArrayList methods = mMakePublicMethods.get(className);
         if (methods == null) {
@@ -156,8 +201,9 @@ class BraveClassVisitor extends ClassVisitor {
             if (methods.containsKey(methodName)) {
                 String newOwner = methods.get(methodName);
                 if (!newOwner.equals(mName)) {
-                    System.out.println("changing owner for " + mName + "." + methodName +
+                    log("changing owner for " + mName + "." + methodName +
                             " - new owner " + newOwner);
+                    mMetrics.mCallsChanged.incrementAndGet();
                     return newOwner;
                 }
             }
@@ -243,11 +289,15 @@ class BraveClassVisitor extends ClassVisitor {
                       String signature,
                       String superName,
                       String[] interfaces) {
+        mStartNanos = System.nanoTime();
         super.cv = new ClassNode();
         mName = name;
+        mAccess = access;
+        mMetrics.mClassesVisited.incrementAndGet();
         if (mSuperNames.containsKey(name)) {
             superName = mSuperNames.get(name);
-            System.out.println("change superclass of " + name + " to " + superName);
+            log("change superclass of " + name + " to " + superName);
+            mMetrics.mSuperClassesChanged.incrementAndGet();
         }
 
         visitImpl(version, access, name, signature, superName, interfaces);
@@ -269,12 +319,14 @@ class BraveClassVisitor extends ClassVisitor {
                                    java.lang.String signature,
                                    java.lang.Object value) {
         if (shouldDeleteField(name)) {
-            System.out.println("delete " + name + " from " + mName);
+            log("delete " + name + " from " + mName);
+            mMetrics.mFieldsChanged.incrementAndGet();
             return null;
         }
 
         if (shouldMakeProtectedField(name)) {
-            System.out.println("make " + name + " public in " + mName);
+            log("make " + name + " public in " + mName);
+            mMetrics.mFieldsChanged.incrementAndGet();
             access &= ~ACC_PRIVATE;
             access |= ACC_PROTECTED;
         }
@@ -289,12 +341,14 @@ class BraveClassVisitor extends ClassVisitor {
                                      String[] exceptions) {
         Method method = new Method(access, name, desc, signature, exceptions);
         if (shouldDeleteMethod(name)) {
-            System.out.println("delete " + name + " from " + mName);
+            log("delete " + name + " from " + mName);
+            mMetrics.mMethodsChanged.incrementAndGet();
             return null;
         }
 
         if (shouldMakePublicMethod(name)) {
-            System.out.println("make " + name + " public in " + mName);
+            log("make " + name + " public in " + mName);
+            mMetrics.mMethodsChanged.incrementAndGet();
             method.makePublic();
         }
 
@@ -319,12 +373,13 @@ class BraveClassVisitor extends ClassVisitor {
         for (MethodNode method : methods) {
             ArrayList<String> annotations = annotationsForClass.get(method.name);
             if (annotations != null) {
+                mMetrics.mMethodsChanged.incrementAndGet();
                 if (method.visibleAnnotations == null) {
                     method.visibleAnnotations = new ArrayList<AnnotationNode>();
                 }
                 for (String annotation : annotations) {
                     method.visibleAnnotations.add(new AnnotationNode(annotation));
-                    System.out.println("add " + annotation + " annotation to " + method.name + " in " + source.name);
+                    log("add " + annotation + " annotation to " + method.name + " in " + source.name);
                 }
             }
         }
@@ -336,8 +391,25 @@ class BraveClassVisitor extends ClassVisitor {
         super.visitEnd();
         ClassNode source = (ClassNode)super.cv;
         ClassNode result = process(source);
+        long targetNanos = 0;
         if (mTarget != null) {
+            long acceptStartNanos = System.nanoTime();
             result.accept(mTarget);
+            targetNanos = System.nanoTime() - acceptStartNanos;
+            // Time spent past the last Brave adapter isn't split between the
+            // visitors there, it all goes to one downstream bucket.
+            if (mTarget instanceof BraveClassVisitor) {
+                targetNanos = ((BraveClassVisitor) mTarget).mInclusiveNanos;
+            } else {
+                AdapterMetrics.Counters targetMetrics =
+                        AdapterMetrics.get(AdapterMetrics.DOWNSTREAM);
+                targetMetrics.mClassesVisited.incrementAndGet();
+                targetMetrics.mNanos.addAndGet(targetNanos);
+            }
         }
+        // The next adapter runs while this one passes the class on, so its
+        // time is taken out.
+        mInclusiveNanos = System.nanoTime() - mStartNanos;
+        mMetrics.mNanos.addAndGet(mInclusiveNanos - targetNanos);
     }
 }
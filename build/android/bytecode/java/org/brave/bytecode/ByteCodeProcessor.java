@@ -36,7 +36,9 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -53,11 +55,18 @@ class ByteCodeProcessor {
     private static boolean sIsPrebuilt;
     private static boolean sShouldUseThreadAnnotations;
     private static boolean sShouldCheckClassPath;
+    private static boolean sShouldTraceMethods;
+    private static boolean sShouldGuardMainThreadIo;
+    // Where to write the adapter metrics, or null to not write them.
+    private static String sMetricsOutputPath;
+    private static boolean sShouldCompressOutput;
+    private static Set<String> sMethodTracingConfig;
     private static ClassLoader sDirectClassPathClassLoader;
     private static ClassLoader sFullClassPathClassLoader;
     private static Set<String> sFullClassPathJarPaths;
     private static Set<String> sMissingClassesAllowlist;
     private static ClassPathValidator sValidator;
+    private static final AtomicInteger sClassCount = new AtomicInteger();
 
     private static class EntryDataPair {
         private final ZipEntry mEntry;
@@ -80,6 +89,24 @@ class ByteCodeProcessor {
         }
     }
 
+    /**
+     * ClassWriter that resolves common super classes through the given class loader instead
+     * of the one that loaded the processor, so frames can be computed for app classes.
+     */
+    private static class ClassLoaderClassWriter extends ClassWriter {
+        private final ClassLoader mClassLoader;
+
+        ClassLoaderClassWriter(ClassLoader classLoader, int flags) {
+            super(flags);
+            mClassLoader = classLoader;
+        }
+
+        @Override
+        protected ClassLoader getClassLoader() {
+            return mClassLoader;
+        }
+    }
+
     private static EntryDataPair processEntry(ZipEntry entry, byte[] data)
             throws ClassPathValidator.ClassNotLoadedException {
         // Copy all non-.class files to the output jar.
@@ -87,6 +114,7 @@ class ByteCodeProcessor {
             return new EntryDataPair(entry, data);
         }
 
+        sClassCount.incrementAndGet();
         ClassReader reader = new ClassReader(data);
         if (sShouldCheckClassPath) {
             sValidator.validateClassPathsAndOutput(reader, sDirectClassPathClassLoader,
@@ -94,7 +122,13 @@ class ByteCodeProcessor {
                     sMissingClassesAllowlist);
         }
 
-        ClassWriter writer = new ClassWriter(reader, 0);
+        // Method tracing inserts exception handlers, so traced classes need their stack map
+        // frames recomputed. Everything else keeps the cheaper copy-through writer.
+        boolean shouldTraceMethods = sShouldTraceMethods
+                && MethodTracingClassAdapter.shouldProcess(reader, sMethodTracingConfig);
+        ClassWriter writer = shouldTraceMethods
+                ? new ClassLoaderClassWriter(sFullClassPathClassLoader, ClassWriter.COMPUTE_FRAMES)
+                : new ClassWriter(reader, 0);
         ClassVisitor chain = writer;
         /* DEBUGGING:
          To see objectweb.asm code that will generate bytecode for a given class:
@@ -111,41 +145,49 @@ class ByteCodeProcessor {
           chain = new TraceClassVisitor(chain, new PrintWriter(System.out));
         }
         */
+        if (shouldTraceMethods) {
+            chain = new MethodTracingClassAdapter(chain, sMethodTracingConfig);
+        }
         if (sShouldUseThreadAnnotations) {
             chain = new ThreadAssertionClassAdapter(chain);
         }
+        if (sShouldGuardMainThreadIo) {
+            chain = new MainThreadIoGuardClassAdapter(chain);
+        }
         chain = org.brave.bytecode.BraveClassAdapter.createAdapter(chain);
-        reader.accept(chain, 0);
+        reader.accept(chain, shouldTraceMethods ? ClassReader.SKIP_FRAMES : 0);
+        long toByteArrayStartNanos = System.nanoTime();
         byte[] patchedByteCode = writer.toByteArray();
+        AdapterMetrics.Counters toByteArrayMetrics =
+                AdapterMetrics.get(AdapterMetrics.CLASS_WRITER_TO_BYTE_ARRAY);
+        toByteArrayMetrics.mClassesVisited.incrementAndGet();
+        toByteArrayMetrics.mNanos.addAndGet(System.nanoTime() - toByteArrayStartNanos);
         return EntryDataPair.create(entry.getName(), patchedByteCode);
     }
 
+    /**
+     * Processes and deflates an entry on a worker thread, so the writer only has to copy it.
+     */
+    private static PrecompressedZipWriter.Entry processAndCompressEntry(ZipEntry entry,
+            byte[] data) throws ClassPathValidator.ClassNotLoadedException {
+        EntryDataPair pair = processEntry(entry, data);
+        return PrecompressedZipWriter.Entry.create(
+                pair.mEntry.getName(), pair.mData, Deflater.DEFAULT_COMPRESSION);
+    }
+
     private static void process(String inputJarPath, String outputJarPath)
             throws ClassPathValidator.ClassNotLoadedException, ExecutionException,
                    InterruptedException {
+        long startNanos = System.nanoTime();
         String tempJarPath = outputJarPath + TEMPORARY_FILE_SUFFIX;
         ExecutorService executorService =
                 Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
         try (ZipInputStream inputStream = new ZipInputStream(
-                     new BufferedInputStream(new FileInputStream(inputJarPath)));
-                ZipOutputStream tempStream = new ZipOutputStream(
-                        new BufferedOutputStream(new FileOutputStream(tempJarPath)))) {
-            List<Future<EntryDataPair>> list = new ArrayList<>();
-            while (true) {
-                ZipEntry entry = inputStream.getNextEntry();
-                if (entry == null) {
-                    break;
-                }
-                byte[] data = readAllBytes(inputStream);
-                list.add(executorService.submit(() -> processEntry(entry, data)));
-            }
-            executorService.shutdown(); // This is essential in order to avoid waiting infinitely.
-            // Write the zip file entries in order to preserve determinism.
-            for (Future<EntryDataPair> futurePair : list) {
-                EntryDataPair pair = futurePair.get();
-                tempStream.putNextEntry(pair.mEntry);
-                tempStream.write(pair.mData);
-                tempStream.closeEntry();
+                     new BufferedInputStream(new FileInputStream(inputJarPath)))) {
+            if (sShouldCompressOutput) {
+                writeCompressed(inputStream, tempJarPath, executorService);
+            } else {
+                writeStored(inputStream, tempJarPath, executorService);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -157,6 +199,18 @@ class ByteCodeProcessor {
         } catch (IOException ioException) {
             throw new RuntimeException(ioException);
         }
+        if (sMetricsOutputPath != null) {
+            // Timings differ on every run, so the metrics are not a declared output of the
+            // build step: they would make it non deterministic.
+            try {
+                Files.createDirectories(
+                        Paths.get(sMetricsOutputPath).toAbsolutePath().getParent());
+                AdapterMetrics.write(sMetricsOutputPath, sClassCount.get(),
+                        System.nanoTime() - startNanos);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
 
         if (sValidator.hasErrors()) {
             System.err.println("Direct classpath is incomplete. To fix, add deps on the "
@@ -169,6 +223,54 @@ class ByteCodeProcessor {
         }
     }
 
+    private static void writeStored(ZipInputStream inputStream, String tempJarPath,
+            ExecutorService executorService)
+            throws IOException, ExecutionException, InterruptedException {
+        try (ZipOutputStream tempStream = new ZipOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(tempJarPath)))) {
+            List<Future<EntryDataPair>> list = new ArrayList<>();
+            while (true) {
+                ZipEntry entry = inputStream.getNextEntry();
+                if (entry == null) {
+                    break;
+                }
+                byte[] data = readAllBytes(inputStream);
+                list.add(executorService.submit(() -> processEntry(entry, data)));
+            }
+            executorService.shutdown(); // This is essential in order to avoid waiting infinitely.
+            // Write the zip file entries in order to preserve determinism.
+            for (Future<EntryDataPair> futurePair : list) {
+                EntryDataPair pair = futurePair.get();
+                tempStream.putNextEntry(pair.mEntry);
+                tempStream.write(pair.mData);
+                tempStream.closeEntry();
+            }
+        }
+    }
+
+    private static void writeCompressed(ZipInputStream inputStream, String tempJarPath,
+            ExecutorService executorService)
+            throws IOException, ExecutionException, InterruptedException {
+        try (PrecompressedZipWriter tempWriter = new PrecompressedZipWriter(
+                     new BufferedOutputStream(new FileOutputStream(tempJarPath), BUFFER_SIZE))) {
+            List<Future<PrecompressedZipWriter.Entry>> list = new ArrayList<>();
+            while (true) {
+                ZipEntry entry = inputStream.getNextEntry();
+                if (entry == null) {
+                    break;
+                }
+                byte[] data = readAllBytes(inputStream);
+                list.add(executorService.submit(() -> processAndCompressEntry(entry, data)));
+            }
+            executorService.shutdown(); // This is essential in order to avoid waiting infinitely.
+            // Entries are compressed by the workers, in any order, but written in input order
+            // so the output stays deterministic.
+            for (Future<PrecompressedZipWriter.Entry> futureEntry : list) {
+                tempWriter.write(futureEntry.get());
+            }
+        }
+    }
+
     private static void printValidationError(
             PrintStream out, String jarName, Map<String, Set<String>> missingClasses) {
         out.print(" * ");
@@ -240,9 +342,21 @@ class ByteCodeProcessor {
         String inputJarPath = args[currIndex++];
         String outputJarPath = args[currIndex++];
         sVerbose = args[currIndex++].equals("--verbose");
+        BraveClassVisitor.setVerbose(sVerbose);
         sIsPrebuilt = args[currIndex++].equals("--is-prebuilt");
         sShouldUseThreadAnnotations = args[currIndex++].equals("--enable-thread-annotations");
         sShouldCheckClassPath = args[currIndex++].equals("--enable-check-class-path");
+        sShouldTraceMethods = args[currIndex++].equals("--enable-method-tracing");
+        sShouldGuardMainThreadIo = args[currIndex++].equals("--enable-main-thread-io-guard");
+        sShouldCompressOutput = args[currIndex++].equals("--compress-output");
+
+        ArrayList<String> metricsOutputPaths = new ArrayList<>();
+        currIndex = parseListArgument(args, currIndex, metricsOutputPaths);
+        sMetricsOutputPath = metricsOutputPaths.isEmpty() ? null : metricsOutputPaths.get(0);
+
+        ArrayList<String> methodTracingEntries = new ArrayList<>();
+        currIndex = parseListArgument(args, currIndex, methodTracingEntries);
+        sMethodTracingConfig = MethodTracingClassAdapter.parseConfig(methodTracingEntries);
 
         sMissingClassesAllowlist = new HashSet<>();
         currIndex = parseListArgument(args, currIndex, sMissingClassesAllowlist);
@@ -0,0 +1,119 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.brave.bytecode;
+
+import static org.objectweb.asm.Opcodes.ASM7;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A ClassVisitor which adds a call to
+ * {@link org.chromium.base.BraveMainThreadIoGuard}'s onBlockingCall right
+ * before call sites of blocking I/O APIs:
+ *  - SQLiteOpenHelper.getWritableDatabase/getReadableDatabase (matched by name and
+ *    descriptor, so calls through subclasses are covered too);
+ *  - BitmapFactory.decode*;
+ *  - FileInputStream constructors;
+ *  - URLConnection/HttpURLConnection/HttpsURLConnection.connect.
+ * The guard gets the API name and the calling method, and checks the thread at runtime.
+ * The original call is left untouched, only the operand stack grows by two slots.
+ */
+class MainThreadIoGuardClassAdapter extends ClassVisitor {
+    private static final String GUARD = "org/chromium/base/BraveMainThreadIoGuard";
+    private static final String GUARD_METHOD = "onBlockingCall";
+    private static final String GUARD_SIGNATURE = "(Ljava/lang/String;Ljava/lang/String;)V";
+    private static final int GUARD_STACK_SIZE = 2;
+
+    private static final String SQLITE_DATABASE_GETTER_SIGNATURE =
+            "()Landroid/database/sqlite/SQLiteDatabase;";
+    private static final String BITMAP_FACTORY = "android/graphics/BitmapFactory";
+    private static final String FILE_INPUT_STREAM = "java/io/FileInputStream";
+    private static final Set<String> URL_CONNECTIONS = new HashSet<>(Arrays.asList(
+            "java/net/URLConnection", "java/net/HttpURLConnection",
+            "javax/net/ssl/HttpsURLConnection"));
+
+    private String mClassName = "";
+
+    MainThreadIoGuardClassAdapter(ClassVisitor visitor) {
+        super(ASM7, visitor);
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName,
+            String[] interfaces) {
+        mClassName = name;
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(final int access, final String name, String desc,
+            String signature, String[] exceptions) {
+        MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+        // Don't guard the guard.
+        if (GUARD.equals(mClassName)) return mv;
+        return new GuardMethodVisitor(mv, mClassName.replace('/', '.') + "." + name);
+    }
+
+    /**
+     * @return the name of the blocking API called by the instruction, or null if the
+     * instruction is not a blocking call.
+     */
+    static String getBlockingApi(int opcode, String owner, String name, String descriptor) {
+        if (opcode == INVOKEVIRTUAL && SQLITE_DATABASE_GETTER_SIGNATURE.equals(descriptor)
+                && (name.equals("getWritableDatabase") || name.equals("getReadableDatabase"))) {
+            return "SQLiteOpenHelper." + name;
+        }
+        if (opcode == INVOKESTATIC && BITMAP_FACTORY.equals(owner) && name.startsWith("decode")) {
+            return "BitmapFactory." + name;
+        }
+        if (opcode == INVOKESPECIAL && FILE_INPUT_STREAM.equals(owner) && name.equals("<init>")) {
+            return "FileInputStream.<init>";
+        }
+        if (opcode == INVOKEVIRTUAL && URL_CONNECTIONS.contains(owner) && name.equals("connect")
+                && descriptor.equals("()V")) {
+            return owner.substring(owner.lastIndexOf('/') + 1) + ".connect";
+        }
+        return null;
+    }
+
+    private static class GuardMethodVisitor extends MethodVisitor {
+        private final String mCaller;
+        private boolean mGuardAdded;
+
+        GuardMethodVisitor(MethodVisitor mv, String caller) {
+            super(ASM7, mv);
+            mCaller = caller;
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor,
+                boolean isInterface) {
+            String api = getBlockingApi(opcode, owner, name, descriptor);
+            if (api != null) {
+                super.visitLdcInsn(api);
+                super.visitLdcInsn(mCaller);
+                super.visitMethodInsn(INVOKESTATIC, GUARD, GUARD_METHOD, GUARD_SIGNATURE, false);
+                mGuardAdded = true;
+            }
+            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            // The ClassWriter doesn't recompute maxs, so make room for the guard arguments.
+            // Frames are unaffected, the guard call leaves the stack as it found it.
+            super.visitMaxs(mGuardAdded ? maxStack + GUARD_STACK_SIZE : maxStack, maxLocals);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.brave.bytecode;
+
+import static org.objectweb.asm.Opcodes.ACC_ABSTRACT;
+import static org.objectweb.asm.Opcodes.ACC_NATIVE;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ASM7;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.LLOAD;
+import static org.objectweb.asm.Opcodes.LSTORE;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A ClassVisitor which wraps methods in calls to
+ * {@link org.chromium.chrome.browser.util.BraveTraceRecorder}'s begin/endMethod. A method is
+ * traced when it is annotated with
+ * {@link org.chromium.chrome.browser.util.BraveTraced} or listed in the tracing config.
+ * Config entries are either a class internal name (all methods of the class are traced) or
+ * "internal/class/Name#methodName".
+ *
+ * The start timestamp is kept in a new local variable inserted right after the method
+ * arguments, so all other locals are shifted by two slots. endMethod is called before every
+ * return and from a catch-all handler that rethrows, so exception exits are recorded as well.
+ * Stack map frames are not updated here: classes processed by this adapter must be written
+ * with {@link org.objectweb.asm.ClassWriter#COMPUTE_FRAMES}, see {@link #shouldProcess}.
+ */
+class MethodTracingClassAdapter extends ClassVisitor {
+    private static final String TRACE_RECORDER = "org/chromium/chrome/browser/util/BraveTraceRecorder";
+    private static final String BEGIN_SIGNATURE = "()J";
+    private static final String END_SIGNATURE = "(Ljava/lang/String;J)V";
+    private static final String TRACED_ANNOTATION_DESCRIPTOR =
+            "Lorg/chromium/chrome/browser/util/BraveTraced;";
+    private static final String CONSTRUCTOR = "<init>";
+    private static final String STATIC_INITIALIZER = "<clinit>";
+    private static final String METHOD_SEPARATOR = "#";
+
+    private final Set<String> mConfig;
+    private String mClassName = "";
+    private String mSimpleClassName = "";
+
+    MethodTracingClassAdapter(ClassVisitor visitor, Set<String> config) {
+        super(ASM7, visitor);
+        mConfig = config;
+    }
+
+    /**
+     * Parses tracing config entries.
+     */
+    static Set<String> parseConfig(Collection<String> entries) {
+        Set<String> config = new HashSet<>();
+        for (String entry : entries) {
+            entry = entry.trim();
+            if (!entry.isEmpty()) config.add(entry.replace('.', '/'));
+        }
+        return config;
+    }
+
+    /**
+     * Cheap pre-pass over the class, without code, to find out whether any method would be
+     * traced. Only such classes need to pay for frame recomputation.
+     */
+    static boolean shouldProcess(ClassReader reader, Set<String> config) {
+        if (config.contains(reader.getClassName())) return true;
+        final boolean[] found = new boolean[1];
+        reader.accept(new ClassVisitor(ASM7) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc,
+                    String signature, String[] exceptions) {
+                if (found[0] || !isTraceable(access, name)) return null;
+                if (config.contains(reader.getClassName() + METHOD_SEPARATOR + name)) {
+                    found[0] = true;
+                    return null;
+                }
+                return new MethodVisitor(ASM7) {
+                    @Override
+                    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                        if (TRACED_ANNOTATION_DESCRIPTOR.equals(descriptor)) found[0] = true;
+                        return null;
+                    }
+                };
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return found[0];
+    }
+
+    private static boolean isTraceable(int access, String name) {
+        // Constructors can't have a handler around the super() call, and there is nothing
+        // to time in abstract and native methods.
+        return (access & (ACC_ABSTRACT | ACC_NATIVE | ACC_SYNTHETIC)) == 0
+                && !CONSTRUCTOR.equals(name) && !STATIC_INITIALIZER.equals(name);
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName,
+            String[] interfaces) {
+        mClassName = name;
+        mSimpleClassName = name.substring(name.lastIndexOf('/') + 1);
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(final int access, final String name, String desc,
+            String signature, String[] exceptions) {
+        MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+        if (!isTraceable(access, name)) return mv;
+        boolean configured = mConfig.contains(mClassName)
+                || mConfig.contains(mClassName + METHOD_SEPARATOR + name);
+        return new TraceMethodVisitor(
+                mv, access, desc, mSimpleClassName + "." + name, configured);
+    }
+
+    private static class TraceMethodVisitor extends MethodVisitor {
+        private final String mTraceName;
+        private final int mStartLocal;
+        private boolean mShouldTrace;
+        private final Label mTryStart = new Label();
+        private final Label mTryEnd = new Label();
+        private final Label mHandler = new Label();
+
+        TraceMethodVisitor(
+                MethodVisitor mv, int access, String desc, String traceName, boolean configured) {
+            super(ASM7, mv);
+            mTraceName = traceName;
+            mShouldTrace = configured;
+            int firstLocal = (access & ACC_STATIC) != 0 ? 0 : 1;
+            for (Type argumentType : Type.getArgumentTypes(desc)) {
+                firstLocal += argumentType.getSize();
+            }
+            mStartLocal = firstLocal;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            if (TRACED_ANNOTATION_DESCRIPTOR.equals(descriptor)) mShouldTrace = true;
+            return super.visitAnnotation(descriptor, visible);
+        }
+
+        @Override
+        public void visitCode() {
+            super.visitCode();
+            if (!mShouldTrace) return;
+            super.visitMethodInsn(
+                    INVOKESTATIC, TRACE_RECORDER, "begin", BEGIN_SIGNATURE, false);
+            super.visitVarInsn(LSTORE, mStartLocal);
+            super.visitLabel(mTryStart);
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            if (mShouldTrace && opcode >= IRETURN && opcode <= RETURN) {
+                visitEndMethod();
+            }
+            super.visitInsn(opcode);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            super.visitVarInsn(opcode, remap(var));
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            super.visitIincInsn(remap(var), increment);
+        }
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature,
+                Label start, Label end, int index) {
+            super.visitLocalVariable(name, descriptor, signature, start, end, remap(index));
+        }
+
+        @Override
+        public void visitMaxs(int maxStack, int maxLocals) {
+            if (mShouldTrace) {
+                // Registered last, so handlers of the method itself keep precedence.
+                super.visitLabel(mTryEnd);
+                super.visitTryCatchBlock(mTryStart, mTryEnd, mHandler, null);
+                super.visitLabel(mHandler);
+                visitEndMethod();
+                super.visitInsn(ATHROW);
+            }
+            // Frames and maxs are recomputed by the ClassWriter.
+            super.visitMaxs(maxStack, maxLocals);
+        }
+
+        private void visitEndMethod() {
+            super.visitLdcInsn(mTraceName);
+            super.visitVarInsn(LLOAD, mStartLocal);
+            super.visitMethodInsn(INVOKESTATIC, TRACE_RECORDER, "endMethod", END_SIGNATURE, false);
+        }
+
+        private int remap(int var) {
+            return mShouldTrace && var >= mStartLocal ? var + 2 : var;
+        }
+    }
+}
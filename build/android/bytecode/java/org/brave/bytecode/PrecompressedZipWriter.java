@@ -0,0 +1,229 @@
+/* Copyright (c) 2020 The Brave Authors. All rights reserved.
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.brave.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes a zip file out of entries that are already compressed, so compression can run in
+ * parallel on worker threads while this writer only copies bytes in order.
+ * {@link java.util.zip.ZipOutputStream} can't do that, it always compresses on the writing
+ * thread.
+ *
+ * The output is deterministic: entries keep the order they are added in, timestamps are
+ * the DOS epoch (1980-01-01) and no extra fields are written. Zip64 end records are written
+ * when there are more than 65534 entries.
+ */
+class PrecompressedZipWriter implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = (1 << 5) | 1; // 1980-01-01.
+    private static final long MAX_16 = 0xFFFFL;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    /**
+     * An entry ready to be written: name, compression method and the (compressed) data.
+     */
+    static class Entry {
+        private final byte[] mName;
+        private final int mMethod;
+        private final long mCrc;
+        private final long mSize;
+        private final byte[] mData;
+
+        private Entry(String name, int method, long crc, long size, byte[] data) {
+            mName = name.getBytes(StandardCharsets.UTF_8);
+            mMethod = method;
+            mCrc = crc;
+            mSize = size;
+            mData = data;
+        }
+
+        /**
+         * Deflates {@code data} at {@code level}. Entries that don't get smaller, and
+         * directories, are stored.
+         */
+        static Entry create(String name, byte[] data, int level) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            if (data.length == 0 || name.endsWith("/")) {
+                return new Entry(name, ZipEntry.STORED, crc.getValue(), data.length, data);
+            }
+            Deflater deflater = new Deflater(level, true /* nowrap: raw DEFLATE, as in zip */);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, length);
+                }
+                if (compressed.size() >= data.length) {
+                    return new Entry(name, ZipEntry.STORED, crc.getValue(), data.length, data);
+                }
+                return new Entry(name, ZipEntry.DEFLATED, crc.getValue(), data.length,
+                        compressed.toByteArray());
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    private static class CentralRecord {
+        final Entry mEntry;
+        final long mOffset;
+
+        CentralRecord(Entry entry, long offset) {
+            mEntry = entry;
+            mOffset = offset;
+        }
+    }
+
+    private final OutputStream mOut;
+    private final List<CentralRecord> mRecords = new ArrayList<>();
+    private final byte[] mScratch = new byte[8];
+    private long mOffset;
+
+    PrecompressedZipWriter(OutputStream out) {
+        mOut = out;
+    }
+
+    void write(Entry entry) throws IOException {
+        if (mOffset > MAX_32 || entry.mData.length > MAX_32 || entry.mSize > MAX_32) {
+            throw new IOException("Zip64 entries are not supported: "
+                    + new String(entry.mName, StandardCharsets.UTF_8));
+        }
+        mRecords.add(new CentralRecord(entry, mOffset));
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(getVersion(entry));
+        writeShort(FLAG_UTF8);
+        writeShort(entry.mMethod);
+        writeShort(DOS_TIME);
+        writeShort(DOS_DATE);
+        writeInt(entry.mCrc);
+        writeInt(entry.mData.length);
+        writeInt(entry.mSize);
+        writeShort(entry.mName.length);
+        writeShort(0); // Extra field length.
+        writeBytes(entry.mName);
+        writeBytes(entry.mData);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeCentralDirectory();
+        } finally {
+            mOut.close();
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryOffset = mOffset;
+        for (CentralRecord record : mRecords) {
+            Entry entry = record.mEntry;
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(VERSION_DEFLATED); // Version made by.
+            writeShort(getVersion(entry));
+            writeShort(FLAG_UTF8);
+            writeShort(entry.mMethod);
+            writeShort(DOS_TIME);
+            writeShort(DOS_DATE);
+            writeInt(entry.mCrc);
+            writeInt(entry.mData.length);
+            writeInt(entry.mSize);
+            writeShort(entry.mName.length);
+            writeShort(0); // Extra field length.
+            writeShort(0); // Comment length.
+            writeShort(0); // Disk number.
+            writeShort(0); // Internal attributes.
+            writeInt(0); // External attributes.
+            writeInt(record.mOffset);
+            writeBytes(entry.mName);
+        }
+        long centralDirectorySize = mOffset - centralDirectoryOffset;
+        long count = mRecords.size();
+
+        boolean zip64 = count >= MAX_16 || centralDirectoryOffset >= MAX_32
+                || centralDirectorySize >= MAX_32;
+        if (zip64) {
+            long zip64EndOffset = mOffset;
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44); // Size of the rest of this record.
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0); // This disk.
+            writeInt(0); // Disk of the central directory.
+            writeLong(count);
+            writeLong(count);
+            writeLong(centralDirectorySize);
+            writeLong(centralDirectoryOffset);
+
+            writeInt(ZIP64_LOCATOR_SIGNATURE);
+            writeInt(0); // Disk of the zip64 end record.
+            writeLong(zip64EndOffset);
+            writeInt(1); // Number of disks.
+        }
+        writeInt(END_SIGNATURE);
+        writeShort(0); // This disk.
+        writeShort(0); // Disk of the central directory.
+        writeShort((int) Math.min(count, MAX_16));
+        writeShort((int) Math.min(count, MAX_16));
+        writeInt(Math.min(centralDirectorySize, MAX_32));
+        writeInt(Math.min(centralDirectoryOffset, MAX_32));
+        writeShort(0); // Comment length.
+    }
+
+    private static int getVersion(Entry entry) {
+        return entry.mMethod == ZipEntry.DEFLATED ? VERSION_DEFLATED : VERSION_STORED;
+    }
+
+    private void writeShort(int value) throws IOException {
+        mScratch[0] = (byte) value;
+        mScratch[1] = (byte) (value >>> 8);
+        mOut.write(mScratch, 0, 2);
+        mOffset += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            mScratch[i] = (byte) (value >>> (8 * i));
+        }
+        mOut.write(mScratch, 0, 4);
+        mOffset += 4;
+    }
+
+    private void writeLong(long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            mScratch[i] = (byte) (value >>> (8 * i));
+        }
+        mOut.write(mScratch, 0, 8);
+        mOffset += 8;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        mOut.write(bytes);
+        mOffset += bytes.length;
+    }
+}
@@ -33,9 +33,18 @@ def main(argv):
                       help='Extra inputs, passed last to the binary script.')
   parser.add_argument('-v', '--verbose', action='store_true')
   parser.add_argument('--missing-classes-allowlist')
+  parser.add_argument('--method-tracing-list', default='[]',
+                      help='GN list of classes or class#method to trace.')
+  parser.add_argument('--metrics-output',
+                      help='Where to write the changes made and time spent '
+                      'by each adapter. Not a build output, as the timings '
+                      'differ on every run.')
   _AddSwitch(parser, '--is-prebuilt')
   _AddSwitch(parser, '--enable-thread-annotations')
   _AddSwitch(parser, '--enable-check-class-path')
+  _AddSwitch(parser, '--enable-method-tracing')
+  _AddSwitch(parser, '--enable-main-thread-io-guard')
+  _AddSwitch(parser, '--compress-output')
   args = parser.parse_args(argv)
 
   sdk_jars = build_utils.ParseGnList(args.sdk_classpath_jars)
@@ -49,6 +58,8 @@ def main(argv):
     extra_classpath_jars.extend(build_utils.ParseGnList(a))
   args.missing_classes_allowlist = build_utils.ParseGnList(
       args.missing_classes_allowlist)
+  args.method_tracing_list = build_utils.ParseGnList(args.method_tracing_list)
+  metrics_outputs = [args.metrics_output] if args.metrics_output else []
 
   if args.verbose:
     verbose = '--verbose'
@@ -57,8 +68,12 @@ def main(argv):
 
   cmd = ([
       args.script, args.input_jar, args.output_jar, verbose, args.is_prebuilt,
-      args.enable_thread_annotations, args.enable_check_class_path
-  ] + [str(len(args.missing_classes_allowlist))] +
+      args.enable_thread_annotations, args.enable_check_class_path,
+      args.enable_method_tracing, args.enable_main_thread_io_guard,
+      args.compress_output
+  ] + [str(len(metrics_outputs))] + metrics_outputs +
+         [str(len(args.method_tracing_list))] + args.method_tracing_list +
+         [str(len(args.missing_classes_allowlist))] +
          args.missing_classes_allowlist + [str(len(sdk_jars))] + sdk_jars +
          [str(len(direct_jars))] + direct_jars + extra_classpath_jars)
   subprocess.check_call(cmd)
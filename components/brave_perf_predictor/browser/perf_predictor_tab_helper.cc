@@ -110,7 +110,7 @@ void PerfPredictorTabHelper::RecordSavings() {
         bandwidth_tracker_->RecordSavings(savings);
 #if defined(OS_ANDROID)
         chrome::android::BraveShieldsContentSettings::DispatchSavedBandwidth(
-          savings);
+          savings, browser_context->IsOffTheRecord());
 #endif
     }
   }